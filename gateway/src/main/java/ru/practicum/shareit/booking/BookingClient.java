@@ -9,8 +9,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -27,7 +30,11 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, int from, int size) {
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, int from, int size, String after) {
+        if (after != null) {
+            return get("?state={state}&after={after}&size={size}", userId, cursorParameters(state, after, size));
+        }
+
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -45,7 +52,13 @@ public class BookingClient extends BaseClient {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(long userId, BookingState state, int from, int size) {
+    public ResponseEntity<Object> getBookingsByOwner(long userId, BookingState state, int from, int size,
+                                                     String after) {
+        if (after != null) {
+            return get("/owner?state={state}&after={after}&size={size}", userId,
+                    cursorParameters(state, after, size));
+        }
+
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -58,5 +71,17 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
 
+    public ResponseEntity<Object> setStatuses(long userId, List<BookingStatusChangeDto> changes) {
+        return patch("/batch", userId, changes);
+    }
+
+    private static Map<String, Object> cursorParameters(BookingState state, String after, int size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("after", after);
+        parameters.put("size", size);
+        return parameters;
+    }
+
 
 }
@@ -8,11 +8,15 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -20,6 +24,8 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final int MAX_BATCH = 100;
+
     private final BookingClient bookingClient;
 
     @GetMapping
@@ -28,11 +34,13 @@ public class BookingController {
                                               @PositiveOrZero
                                               @RequestParam(name = "from", defaultValue = "0") Integer from,
                                               @Positive
-                                              @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                              @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "after", required = false) String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size,
+                after);
+        return bookingClient.getBookings(userId, state, from, size, after);
     }
 
     @PostMapping
@@ -58,6 +66,14 @@ public class BookingController {
         //return bookingClient.setApprove(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> setStatuses(@RequestHeader("X-Sharer-User-Id") long userId,
+                                              @RequestBody @NotEmpty @Size(max = MAX_BATCH)
+                                              List<@Valid BookingStatusChangeDto> changes) {
+        log.info("Set status of {} bookings, userId={}", changes.size(), userId);
+        return bookingClient.setStatuses(userId, changes);
+    }
+
     @GetMapping("/owner")
     public ResponseEntity<Object> getAllBookingByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                        @RequestParam(name = "state", required = false,
@@ -65,10 +81,12 @@ public class BookingController {
                                                        @RequestParam(value = "from",
                                                                defaultValue = "0") @Min(0) Integer from,
                                                        @RequestParam(value = "size",
-                                                               defaultValue = "100") @Min(1) Integer size) {
+                                                               defaultValue = "100") @Min(1) Integer size,
+                                                       @RequestParam(name = "after",
+                                                               required = false) String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Запрос на получение бронирования для владельца");
-        return bookingClient.getBookingsByOwner(userId, state, from, size);
+        return bookingClient.getBookingsByOwner(userId, state, from, size, after);
     }
 }
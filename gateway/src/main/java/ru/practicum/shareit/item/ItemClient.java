@@ -3,6 +3,7 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
@@ -10,7 +11,9 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.SearchSort;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -45,9 +48,24 @@ public class ItemClient extends BaseClient {
         return delete("/" + itemId);
     }
 
-    public ResponseEntity<Object> searchByName(long userId, String text, int from, int size) {
-        return get("/search?text={text}&from={from}&size={size}", userId,
-                Map.of("text", text, "from", from, "size", size));
+    public ResponseEntity<Object> searchByName(long userId, String text, int from, int size, SearchSort sort,
+                                               boolean fuzzy) {
+        return get("/search?text={text}&from={from}&size={size}&sort={sort}&fuzzy={fuzzy}", userId,
+                Map.of("text", text, "from", from, "size", size, "sort", sort.name(), "fuzzy", fuzzy));
+    }
+
+    public ResponseEntity<Object> suggestNames(String prefix, int size) {
+        return get("/suggest?prefix={prefix}&size={size}", null, Map.of("prefix", prefix, "size", size));
+    }
+
+    public ResponseEntity<Object> getAvailability(long itemId, LocalDateTime from, LocalDateTime to,
+                                                  String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return get("/" + itemId + "/availability?from={from}&to={to}", null,
+                Map.of("from", from.toString(), "to", to.toString()), headers);
     }
 
     public ResponseEntity<Object> createComment(CommentDto comment, Long itemId, Long userId) {
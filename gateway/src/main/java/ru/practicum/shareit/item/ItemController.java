@@ -2,15 +2,20 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemValidate;
+import ru.practicum.shareit.item.dto.SearchSort;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/items")
@@ -67,9 +72,38 @@ public class ItemController {
                                                @RequestParam(value = "from",
                                                        defaultValue = "0") @Min(0) Integer from,
                                                @RequestParam(value = "size",
-                                                       defaultValue = "100") @Min(1) Integer size) {
+                                                       defaultValue = "100") @Min(1) Integer size,
+                                               @RequestParam(value = "sort",
+                                                       defaultValue = "id") String sortParam,
+                                               @RequestParam(value = "fuzzy",
+                                                       defaultValue = "false") Boolean fuzzy) {
+        SearchSort sort = SearchSort.from(sortParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sort: " + sortParam));
         log.info("Запрос на поиск по названию.");
-        return itemClient.searchByName(userId, text, from, size);
+        return itemClient.searchByName(userId, text, from, size, sort, fuzzy);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestNames(@RequestParam String prefix,
+                                               @RequestParam(value = "size",
+                                                       defaultValue = "10") @Min(1) @Max(50) Integer size) {
+        log.info("Запрос на дополнение названия.");
+        return itemClient.suggestNames(prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable Long itemId,
+                                                  @RequestParam
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                  String ifNoneMatch) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше его окончания");
+        }
+        log.info("Запрос свободного времени вещи.");
+        return itemClient.getAvailability(itemId, from, to, ifNoneMatch);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import java.util.Optional;
+
+public enum SearchSort {
+    // По возрастанию id
+    ID,
+    // По убыванию релевантности
+    RELEVANCE;
+
+    public static Optional<SearchSort> from(String stringSort) {
+        for (SearchSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(stringSort)) {
+                return Optional.of(sort);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -3,15 +3,25 @@ package ru.practicum.shareit.user;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
+    public static final String NDJSON = "application/x-ndjson";
     private static final String API_PREFIX = "/users";
 
     @Autowired
@@ -26,6 +36,29 @@ public class UserClient extends BaseClient {
         return post("", user);
     }
 
+    public ResponseEntity<Object> importUsers(List<UserDto> users) {
+        return post("/bulk", users);
+    }
+
+    /**
+     * Передача пакета NDJSON на сервер без разбора строк: записи проверяет и считает сервер
+     */
+    public ResponseEntity<Object> importUsers(InputStream ndjson) {
+        try {
+            return rest.execute("/bulk", HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().setContentType(MediaType.parseMediaType(NDJSON));
+                        request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                        StreamUtils.copy(ndjson, request.getBody());
+                    },
+                    response -> ResponseEntity.status(response.getStatusCode())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(StreamUtils.copyToByteArray(response.getBody())));
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
+    }
+
     public ResponseEntity<Object> getUser(long userId) {
         return get("/" + userId);
     }
@@ -34,6 +67,19 @@ public class UserClient extends BaseClient {
         return get("");
     }
 
+    public ResponseEntity<Object> getUsersAfter(String after, int size) {
+        return get("?after={after}&size={size}", null, Map.of("after", after, "size", size));
+    }
+
+    /**
+     * Копирование выгрузки NDJSON с сервера в поток ответа без разбора и накопления строк
+     */
+    public void exportUsers(OutputStream outputStream) {
+        rest.execute("/export", HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.parseMediaType(NDJSON))),
+                response -> StreamUtils.copy(response.getBody(), outputStream));
+    }
+
     public ResponseEntity<Object> updateUser(long id, UserDto user) {
         return patch("/" + id, user);
     }
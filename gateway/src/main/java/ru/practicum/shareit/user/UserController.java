@@ -3,13 +3,21 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/users")
@@ -17,6 +25,8 @@ import javax.validation.constraints.Min;
 @Slf4j
 @Validated
 public class UserController {
+    private static final int MAX_IMPORT = 1_000;
+
     private final UserClient userClient;
 
     @PostMapping
@@ -24,6 +34,21 @@ public class UserController {
         return userClient.createUser(user);
     }
 
+    /**
+     * Записи пакета проверяет сервер и возвращает результат по каждой, поэтому здесь проверяется только размер
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Object> importUsers(@RequestBody @NotEmpty @Size(max = MAX_IMPORT) List<UserDto> users) {
+        log.info("Import {} users", users.size());
+        return userClient.importUsers(users);
+    }
+
+    @PostMapping(value = "/bulk", consumes = UserClient.NDJSON)
+    public ResponseEntity<Object> importUsersNdjson(HttpServletRequest request) throws IOException {
+        log.info("Import users from NDJSON");
+        return userClient.importUsers(request.getInputStream());
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity<Object> getUser(@PathVariable @Min(value = 1,
             message = "Неверный идентификатор") Long userId) {
@@ -37,6 +62,22 @@ public class UserController {
         return userClient.getAllUsers();
     }
 
+    @GetMapping(params = "after")
+    public ResponseEntity<Object> getUsersAfter(@RequestParam String after,
+                                                @RequestParam(defaultValue = "100") @Positive Integer size) {
+        log.info("Запрос на получение страницы пользователей после '{}'", after);
+        return userClient.getUsersAfter(after, size);
+    }
+
+    @GetMapping(value = "/export", produces = UserClient.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Запрос на выгрузку всех пользователей.");
+        StreamingResponseBody body = userClient::exportUsers;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(UserClient.NDJSON))
+                .body(body);
+    }
+
     @PatchMapping("/{userId}")
     public ResponseEntity<Object> updateUser(@PathVariable @Min(value = 1,
             message = "Неверный идентификатор") Long userId,
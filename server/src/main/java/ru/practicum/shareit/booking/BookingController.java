@@ -2,9 +2,13 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.gateway.GatewayApi;
 
 import javax.validation.Valid;
@@ -16,6 +20,8 @@ import java.util.List;
 @RequiredArgsConstructor
 @Validated
 public class BookingController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final GatewayApi gatewayApi;
 
     @PostMapping
@@ -32,6 +38,17 @@ public class BookingController {
         return gatewayApi.getBooking(bookingId, userId);
     }
 
+    /**
+     * Одобрение или отклонение нескольких бронирований владельцем. Результат по каждому элементу
+     * запроса в том же порядке
+     */
+    @PatchMapping("/batch")
+    public List<BookingStatusResultDto> setStatuses(@RequestBody List<@Valid BookingStatusChangeDto> changes,
+                                                    @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на установление статусов {} бронирований", changes.size());
+        return gatewayApi.setStatuses(changes, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto setStatus(@PathVariable Long bookingId,
                                 @RequestHeader("X-Sharer-User-Id") Long userId,
@@ -40,27 +57,57 @@ public class BookingController {
         return gatewayApi.setStatus(bookingId, userId, approved);
     }
 
+    /**
+     * При заданном after (курсор из заголовка X-Next-Cursor предыдущего ответа, пустой - первая страница)
+     * выдача идёт по ключу, и from не используется
+     */
     @GetMapping
-    public List<BookingDto> getAllBookingByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @RequestParam(name = "state", required = false,
-                                                        defaultValue = "ALL") String state,
-                                                @RequestParam(value = "from",
-                                                        defaultValue = "0") Integer from,
-                                                @RequestParam(value = "size",
-                                                        defaultValue = "100") Integer size) {
+    public ResponseEntity<List<BookingDto>> getAllBookingByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                @RequestParam(name = "state", required = false,
+                                                                        defaultValue = "ALL") String state,
+                                                                @RequestParam(value = "from",
+                                                                        defaultValue = "0") Integer from,
+                                                                @RequestParam(value = "size",
+                                                                        defaultValue = "100") Integer size,
+                                                                @RequestParam(value = "after",
+                                                                        required = false) String after) {
         log.info("Запрос на получение бронирования пользователя");
-        return gatewayApi.getAllBookingByUser(userId, state, from, size);
+
+        if (after == null) {
+            return ResponseEntity.ok(gatewayApi.getAllBookingByUser(userId, state, from, size));
+        }
+        return withNextCursor(gatewayApi.getAllBookingByUserAfter(userId, state, after, size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllBookingByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                 @RequestParam(name = "state", required = false,
-                                                         defaultValue = "ALL") String state,
-                                                 @RequestParam(value = "from",
-                                                         defaultValue = "0") Integer from,
-                                                 @RequestParam(value = "size",
-                                                         defaultValue = "100") Integer size) {
+    public ResponseEntity<List<BookingDto>> getAllBookingByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                 @RequestParam(name = "state", required = false,
+                                                                         defaultValue = "ALL") String state,
+                                                                 @RequestParam(value = "from",
+                                                                         defaultValue = "0") Integer from,
+                                                                 @RequestParam(value = "size",
+                                                                         defaultValue = "100") Integer size,
+                                                                 @RequestParam(value = "after",
+                                                                         required = false) String after) {
         log.info("Запрос на получение бронирования для владельца");
-        return gatewayApi.getAllBookingByOwner(userId, state, from, size);
+
+        if (after == null) {
+            return ResponseEntity.ok(gatewayApi.getAllBookingByOwner(userId, state, from, size));
+        }
+        return withNextCursor(gatewayApi.getAllBookingByOwnerAfter(userId, state, after, size), size);
+    }
+
+    /**
+     * Курсор следующей страницы отдаётся, только если текущая страница заполнена полностью
+     */
+    private static ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+
+        BookingDto last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, new BookingCursor(last.getStart(), last.getId()).encode())
+                .body(bookings);
     }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class BookingStatusChangeDto {
+    @NotNull
+    private Long bookingId;
+    @NotNull
+    private Boolean approved;
+}
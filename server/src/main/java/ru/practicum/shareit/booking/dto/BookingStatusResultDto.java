@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+
+/**
+ * Итог смены статуса одного бронирования в пакетном запросе: HTTP-статус, который вернул бы
+ * одиночный запрос, и бронирование либо текст ошибки
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class BookingStatusResultDto {
+    private Long bookingId;
+    private int status;
+    private BookingDto booking;
+    private String error;
+}
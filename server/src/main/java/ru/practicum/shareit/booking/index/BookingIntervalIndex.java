@@ -0,0 +1,233 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.TimeWindow;
+import ru.practicum.shareit.booking.service.BookingChangedEvent;
+import ru.practicum.shareit.booking.storage.BookingInterval;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Интервалы одобренных и ожидающих подтверждения бронирований по вещам для проверки пересечений
+ * за O(log n). Время хранится в микросекундах от эпохи (точность TIMESTAMP в PostgreSQL).
+ * Обновляется по событиям BookingService после фиксации транзакции, поэтому в индексе нет
+ * несохранённых броней. Найденные пересечения подтверждаются по базе: бронирования,
+ * удалённые вместе с арендатором или владельцем вещи, при этом убираются из индекса, а при удалении
+ * пользователя индекс сверяется с базой целиком.
+ * У каждой вещи есть версия из общего счётчика изменений, вместе с моментом создания индекса
+ * она однозначно определяет набор интервалов вещи и служит ETag для календаря свободного времени
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final Set<BookingStatus> BLOCKING = EnumSet.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+    private static final int CHECK_BATCH = 1_000;
+
+    private final BookingStorage bookingStorage;
+
+    private final Map<Long, ItemIntervals> items = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final long epoch = System.currentTimeMillis();
+    private long changes;
+
+    /**
+     * Построение индекса по ещё не закончившимся бронированиям при старте приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<BookingInterval> intervals = bookingStorage.findIntervals(BLOCKING, LocalDateTime.now());
+
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            changes++;
+            for (BookingInterval interval : intervals) {
+                ItemIntervals itemIntervals = items.computeIfAbsent(interval.getItemId(), id -> new ItemIntervals());
+                itemIntervals.add(interval.getId(), toMicros(interval.getStart()), toMicros(interval.getEnd()));
+                itemIntervals.setVersion(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Индекс интервалов бронирований построен, бронирований: {}", intervals.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        update(event.getBooking());
+    }
+
+    /**
+     * Бронирования удалённого пользователя и бронирования его вещей база удаляет каскадом, событий о них нет.
+     * Все брони индекса сверяются с базой, пропавшие убираются, а версии их вещей меняются
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        Map<Long, List<Long>> idsByItem = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            items.forEach((itemId, intervals) -> {
+                if (intervals.size() > 0) {
+                    idsByItem.put(itemId, intervals.ids());
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ids = idsByItem.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += CHECK_BATCH) {
+            existing.addAll(bookingStorage.findIdsByIdInAndStatusIn(
+                    ids.subList(from, Math.min(from + CHECK_BATCH, ids.size())), BLOCKING));
+        }
+
+        idsByItem.forEach((itemId, candidates) -> {
+            List<Long> confirmed = candidates.stream()
+                    .filter(existing::contains)
+                    .collect(Collectors.toList());
+            if (confirmed.size() < candidates.size()) {
+                removeStale(itemId, candidates, confirmed);
+            }
+        });
+    }
+
+    /**
+     * Учёт нового бронирования или смены его статуса. Отклонённые и отменённые брони из индекса убираются,
+     * заодно отбрасываются уже закончившиеся брони той же вещи
+     */
+    public void update(Booking booking) {
+        Long itemId = booking.getItem().getId();
+
+        lock.writeLock().lock();
+        try {
+            ItemIntervals intervals = items.computeIfAbsent(itemId, id -> new ItemIntervals());
+            intervals.remove(booking.getId());
+            intervals.removeEndedBefore(toMicros(LocalDateTime.now()));
+
+            if (BLOCKING.contains(booking.getStatus())) {
+                intervals.add(booking.getId(), toMicros(booking.getStart()), toMicros(booking.getEnd()));
+            }
+            // Пустой набор остаётся в индексе, чтобы версия вещи не начиналась заново
+            intervals.setVersion(++changes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Есть ли у вещи одобренное или ожидающее бронирование, пересекающееся с [start, end)
+     */
+    public boolean isBooked(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return isBooked(itemId, start, end, null);
+    }
+
+    /**
+     * То же, но без учёта самого бронирования excludedId - для повторного одобрения уже существующей брони
+     */
+    public boolean isBooked(Long itemId, LocalDateTime start, LocalDateTime end, Long excludedId) {
+        List<Long> candidates;
+
+        lock.readLock().lock();
+        try {
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals == null) {
+                return false;
+            }
+            candidates = intervals.overlapping(toMicros(start), toMicros(end));
+            if (excludedId != null) {
+                candidates.remove(excludedId);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (candidates.isEmpty()) {
+            return false;
+        }
+
+        List<Long> confirmed = bookingStorage.findIdsByIdInAndStatusIn(candidates, BLOCKING);
+        if (confirmed.size() < candidates.size()) {
+            removeStale(itemId, candidates, confirmed);
+        }
+        return !confirmed.isEmpty();
+    }
+
+    /**
+     * Версия набора интервалов вещи: меняется при каждом изменении её бронирований и при перезапуске
+     */
+    public String version(Long itemId) {
+        lock.readLock().lock();
+        try {
+            ItemIntervals intervals = items.get(itemId);
+            return epoch + "-" + (intervals == null ? 0 : intervals.version());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Свободные промежутки вещи внутри [from, to). В индексе только незакончившиеся брони,
+     * поэтому прошедшее время считается свободным
+     */
+    public List<TimeWindow> freeWindows(Long itemId, LocalDateTime from, LocalDateTime to) {
+        List<long[]> windows;
+
+        lock.readLock().lock();
+        try {
+            ItemIntervals intervals = items.get(itemId);
+            windows = intervals == null
+                    ? List.of(new long[]{toMicros(from), toMicros(to)})
+                    : intervals.freeWindows(toMicros(from), toMicros(to));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return windows.stream()
+                .map(window -> new TimeWindow(fromMicros(window[0]), fromMicros(window[1])))
+                .collect(Collectors.toList());
+    }
+
+    private void removeStale(Long itemId, List<Long> candidates, List<Long> confirmed) {
+        lock.writeLock().lock();
+        try {
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals != null) {
+                candidates.stream()
+                        .filter(id -> !confirmed.contains(id))
+                        .forEach(intervals::remove);
+                intervals.setVersion(++changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
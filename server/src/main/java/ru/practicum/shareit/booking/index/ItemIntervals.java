@@ -0,0 +1,195 @@
+package ru.practicum.shareit.booking.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Интервалы [start, end) бронирований одной вещи в массивах, отсортированных по началу.
+ * maxEnds[i] - наибольшее окончание среди первых i + 1 интервалов: интервалы в данных могут пересекаться,
+ * поэтому окончания не упорядочены. Пересечение с [start, end) есть, если среди интервалов,
+ * начавшихся до end, наибольшее окончание больше start - это один двоичный поиск
+ */
+final class ItemIntervals {
+    private long[] starts = new long[4];
+    private long[] ends = new long[4];
+    private long[] maxEnds = new long[4];
+    private long[] ids = new long[4];
+    private int size;
+    private long version;
+
+    void add(long id, long start, long end) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            maxEnds = Arrays.copyOf(maxEnds, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+
+        int position = upperBound(start);
+        int tail = size - position;
+        System.arraycopy(starts, position, starts, position + 1, tail);
+        System.arraycopy(ends, position, ends, position + 1, tail);
+        System.arraycopy(ids, position, ids, position + 1, tail);
+        starts[position] = start;
+        ends[position] = end;
+        ids[position] = id;
+        size++;
+        recomputeMaxEnds(position);
+    }
+
+    boolean remove(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Отбрасывание интервалов, закончившихся не позже момента: новые брони начинаются в будущем
+     */
+    void removeEndedBefore(long moment) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (ends[i] > moment) {
+                starts[kept] = starts[i];
+                ends[kept] = ends[i];
+                ids[kept] = ids[i];
+                kept++;
+            }
+        }
+        if (kept != size) {
+            size = kept;
+            recomputeMaxEnds(0);
+        }
+    }
+
+    /**
+     * id всех интервалов, пересекающихся с [start, end). Просмотр идёт назад от последнего начавшегося
+     * до end интервала и прекращается, как только префиксный максимум окончаний перестаёт превышать start
+     */
+    List<Long> overlapping(long start, long end) {
+        List<Long> found = new ArrayList<>();
+
+        for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+            if (ends[i] > start) {
+                found.add(ids[i]);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Свободные промежутки внутри [from, to) как пары {начало, окончание}. Интервалы, закончившиеся
+     * до from, пропускаются двоичным поиском по неубывающему префиксному максимуму окончаний
+     */
+    List<long[]> freeWindows(long from, long to) {
+        List<long[]> windows = new ArrayList<>();
+        long cursor = from;
+
+        for (int i = firstEndingAfter(from); i < size && starts[i] < to; i++) {
+            if (starts[i] > cursor) {
+                windows.add(new long[]{cursor, starts[i]});
+            }
+            cursor = Math.max(cursor, ends[i]);
+        }
+        if (cursor < to) {
+            windows.add(new long[]{cursor, to});
+        }
+
+        return windows;
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<Long> ids() {
+        List<Long> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    long version() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    private void removeAt(int position) {
+        int tail = size - position - 1;
+        System.arraycopy(starts, position + 1, starts, position, tail);
+        System.arraycopy(ends, position + 1, ends, position, tail);
+        System.arraycopy(ids, position + 1, ids, position, tail);
+        size--;
+        recomputeMaxEnds(position);
+    }
+
+    private void recomputeMaxEnds(int from) {
+        long max = from == 0 ? Long.MIN_VALUE : maxEnds[from - 1];
+        for (int i = from; i < size; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnds[i] = max;
+        }
+    }
+
+    /**
+     * Позиция первого интервала, после которого наибольшее окончание превышает value
+     */
+    private int firstEndingAfter(long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (maxEnds[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Число интервалов, начавшихся строго раньше value
+     */
+    private int lowerBound(long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Число интервалов, начавшихся не позже value
+     */
+    private int upperBound(long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
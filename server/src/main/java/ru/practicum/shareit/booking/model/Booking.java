@@ -32,4 +32,7 @@ public class Booking {
     private User booker;
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+    // Номер версии для условной смены статуса, см. BookingStorage.updateStatus
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking.model;
+
+public enum BookingRole {
+    BOOKER, // бронирования, созданные пользователем
+    OWNER   // бронирования вещей пользователя
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Последнее и ближайшее одобренные бронирования вещи, посчитанные заранее.
+ * Запись верна до момента validUntil - начала ближайшего бронирования, после него пересчитывается.
+ * Отсутствие записи означает, что одобренных бронирований у вещи нет
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@Entity
+@Table(name = "item_booking_pointers")
+public class ItemBookingPointer {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    private Booking lastBooking;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    private Booking nextBooking;
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;
+
+    public boolean isStale(LocalDateTime now) {
+        return validUntil != null && validUntil.isBefore(now);
+    }
+}
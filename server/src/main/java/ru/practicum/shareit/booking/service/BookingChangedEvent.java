@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.model.Booking;
+
+/**
+ * Бронирование создано или сменило статус
+ */
+@Getter
+@RequiredArgsConstructor
+public class BookingChangedEvent {
+    private final Booking booking;
+}
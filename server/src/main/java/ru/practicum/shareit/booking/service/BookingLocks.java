@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Полосатые блокировки по id вещи: создание броней одной вещи выполняется по очереди от проверки
+ * пересечений до фиксации и обновления индекса интервалов, брони разных вещей почти всегда
+ * попадают в разные полосы и друг друга не ждут. Блокировки действуют в пределах одного процесса,
+ * как и индекс интервалов, по которому проверяются пересечения
+ */
+@Component
+public class BookingLocks {
+    private final Lock[] stripes;
+
+    public BookingLocks(@Value("${shareit.booking.lock-stripes:64}") int stripes) {
+        // Число полос округляется вверх до степени двойки, чтобы номер полосы брался маской
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        Lock lock = stripes[stripe(itemId)];
+
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int stripe(Long itemId) {
+        long hash = itemId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (stripes.length - 1);
+    }
+
+    int size() {
+        return stripes.length;
+    }
+}
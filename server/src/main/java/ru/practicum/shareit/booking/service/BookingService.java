@@ -1,28 +1,105 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingPointer;
+import ru.practicum.shareit.booking.model.TimeWindow;
 import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.ItemBookingPointerStorage;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NoDataFoundException;
 
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingService {
     private final BookingStorage bookingStorage;
+    private final ItemBookingPointerStorage pointerStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingIntervalIndex intervalIndex;
 
     @Transactional
     public Booking createBooking(Booking booking) {
-        return bookingStorage.save(booking);
+        Booking saved = bookingStorage.save(booking);
+
+        if (booking.getStatus() == BookingStatus.APPROVED) {
+            refreshPointers(List.of(booking.getItem().getId()), LocalDateTime.now());
+        }
+        eventPublisher.publishEvent(new BookingChangedEvent(booking));
+        return saved;
+    }
+
+    /**
+     * Смена статуса условным UPDATE по прочитанной версии бронирования и пересчёт последнего
+     * и ближайшего бронирований вещи в той же транзакции. Если статус за это время сменил другой
+     * запрос, ничего не меняется и выбрасывается ConflictException
+     */
+    @Transactional
+    public Booking updateStatus(Booking booking, BookingStatus status) {
+        if (bookingStorage.updateStatus(booking.getId(), status, booking.getVersion()) == 0) {
+            throw new ConflictException("Статус бронирования уже изменён другим запросом");
+        }
+
+        // После UPDATE контекст очищен, поэтому изменение отсоединённого объекта в базу не попадает
+        booking.setStatus(status);
+        booking.setVersion(booking.getVersion() + 1);
+        refreshPointers(List.of(booking.getItem().getId()), LocalDateTime.now());
+        eventPublisher.publishEvent(new BookingChangedEvent(booking));
+        return booking;
+    }
+
+    /**
+     * Смена статусов нескольких бронирований одним пакетом условных UPDATE по версиям. Возвращает
+     * изменённые бронирования, бронирования, которые успел изменить другой запрос, в ответ не попадают.
+     * Последнее и ближайшее бронирования пересчитываются один раз для всех затронутых вещей
+     */
+    @Transactional
+    public List<Booking> updateStatuses(List<Booking> bookings, List<BookingStatus> statuses) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+
+        int[] updated = bookingStorage.updateStatuses(bookings, statuses);
+        List<Booking> changed = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            // Драйвер может не сообщить число строк (SUCCESS_NO_INFO), это тоже успешное обновление,
+            // а EXECUTE_FAILED означает, что команда пакета не выполнилась
+            if (updated[i] > 0 || updated[i] == Statement.SUCCESS_NO_INFO) {
+                Booking booking = bookings.get(i);
+                booking.setStatus(statuses.get(i));
+                booking.setVersion(booking.getVersion() + 1);
+                changed.add(booking);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            refreshPointers(changed.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .distinct()
+                    .collect(Collectors.toList()), LocalDateTime.now());
+            changed.forEach(booking -> eventPublisher.publishEvent(new BookingChangedEvent(booking)));
+        }
+        return changed;
     }
 
     @Transactional
@@ -36,91 +113,114 @@ public class BookingService {
         return bookingO.get();
     }
 
+    /**
+     * Бронирования по списку id вместе с вещью, владельцем и арендатором одним запросом
+     */
     @Transactional
-    public List<Booking> getAllBookingByUser(Long userId, BookingState state, Pageable pageable) {
-        LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
-
-        switch (state) {
-            case ALL:
-                bookings = bookingStorage.findAllByBookerIdOrderByStartDesc(userId, pageable);
-                break;
-            case CURRENT:
-                bookings = bookingStorage.findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId,
-                        now, now, pageable);
-                break;
-            case PAST:
-                bookings = bookingStorage.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(userId, now, pageable);
-                break;
-            case FUTURE:
-                bookings = bookingStorage.findAllByBookerIdAndStartIsAfterOrderByStartDesc(userId, now, pageable);
-                break;
-            case WAITING:
-                bookings = bookingStorage.findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc(userId,
-                        now, BookingStatus.WAITING, pageable);
-                break;
-            case REJECTED:
-                bookings = bookingStorage.findAllByBookerIdAndStatusOrderByStartDesc(userId,
-                        BookingStatus.REJECTED, pageable);
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown state: " + state);
+    public List<Booking> getBookings(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
         }
-        return bookings;
+        return bookingStorage.findAllByIdIn(ids);
+    }
+
+    @Transactional
+    public List<Booking> getAllBookingByUser(Long userId, BookingState state, Pageable pageable) {
+        return bookingStorage.findPage(BookingRole.BOOKER, userId, state, LocalDateTime.now(), pageable);
     }
 
     @Transactional
     public List<Booking> getAllBookingByOwner(Long userId, BookingState state, Pageable pageable) {
+        return bookingStorage.findPage(BookingRole.OWNER, userId, state, LocalDateTime.now(), pageable);
+    }
+
+    @Transactional
+    public List<Booking> getBookingsAfter(BookingRole role, Long userId, BookingState state, BookingCursor after,
+                                          int size) {
+        return bookingStorage.findPageAfter(role, userId, state, LocalDateTime.now(), after, size);
+    }
+
+    /**
+     * Последнее и ближайшее одобренные бронирования вещей по заранее посчитанным указателям.
+     * Указатели, у которых наступило ближайшее бронирование, пересчитываются на месте
+     */
+    @Transactional
+    public Map<Long, ItemBookingPointer> getLastAndNext(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
-
-        switch (state) {
-            case ALL:
-                bookings = bookingStorage.findAllByItemOwnerIdOrderByStartDesc(userId, pageable);
-                break;
-            case CURRENT:
-                bookings = bookingStorage.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId,
-                        now, now, pageable);
-                break;
-            case PAST:
-                bookings = bookingStorage.findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(userId, now,
-                        pageable);
-                break;
-            case FUTURE:
-                bookings = bookingStorage.findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(userId, now,
-                        pageable);
-                break;
-            case WAITING:
-                bookings = bookingStorage.findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc(userId,
-                        now, BookingStatus.WAITING, pageable);
-                break;
-            case REJECTED:
-                bookings = bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId,
-                        BookingStatus.REJECTED, pageable);
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown state: " + state);
+        List<ItemBookingPointer> pointers = pointerStorage.findAllByItemIdIn(itemIds);
+        List<Long> stale = pointers.stream()
+                .filter(pointer -> pointer.isStale(now))
+                .map(ItemBookingPointer::getItemId)
+                .collect(Collectors.toList());
+
+        // Пересчёт меняет те же управляемые сущности, поэтому повторно читать указатели не нужно
+        if (!stale.isEmpty()) {
+            refreshPointers(stale, now);
         }
-        return bookings;
+
+        return pointers.stream()
+                .collect(Collectors.toMap(ItemBookingPointer::getItemId, pointer -> pointer));
     }
 
+    /**
+     * Перенос указателей вещей, у которых началось ближайшее бронирование, чтобы чтение не пересчитывало их само
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking.pointers.refresh-delay:60000}")
     @Transactional
-    public List<Booking> getLastOrNext(List<Long> itemId, String flag) {
+    public void rollPointersForward() {
         LocalDateTime now = LocalDateTime.now();
+        List<Long> stale = pointerStorage.findStaleItemIds(now);
 
-        if (flag.equals("last")) {
-            return bookingStorage.findFirstByItemIdInAndStartBeforeAndStatusOrderByEndDesc(itemId,
-                    now,
-                    BookingStatus.APPROVED);
-        } else if (flag.equals("next")) {
-            return bookingStorage.findFirstByItemIdInAndStartAfterAndStatusOrderByStartAsc(itemId, LocalDateTime.now(),
-                    BookingStatus.APPROVED);
+        if (!stale.isEmpty()) {
+            refreshPointers(stale, now);
+            log.info("Пересчитаны последние и ближайшие бронирования {} вещей", stale.size());
         }
-        return new ArrayList<>();
+    }
+
+    public String getAvailabilityVersion(Long itemId) {
+        return intervalIndex.version(itemId);
+    }
+
+    public List<TimeWindow> getFreeWindows(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return intervalIndex.freeWindows(itemId, from, to);
     }
 
     @Transactional
     public Optional<Booking> getBookingByUserAndItem(Long userId, Long itemId) {
         return bookingStorage.findFirstByItemIdAndBookerIdAndEndBefore(itemId, userId, LocalDateTime.now());
     }
+
+    private void refreshPointers(List<Long> itemIds, LocalDateTime now) {
+        Map<Long, Booking> last = bookingStorage.findLastPerItem(itemIds, now, BookingStatus.APPROVED).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), booking -> booking));
+        Map<Long, Booking> next = bookingStorage.findNextPerItem(itemIds, now, BookingStatus.APPROVED).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), booking -> booking));
+        Map<Long, ItemBookingPointer> pointers = pointerStorage.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingPointer::getItemId, pointer -> pointer));
+
+        // Строку могла одновременно создать другая транзакция, поэтому недостающие вставляются
+        // без конфликта по ключу и затем обновляются как существующие
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> !pointers.containsKey(itemId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            pointerStorage.insertMissing(missing);
+            pointerStorage.findAllById(missing).forEach(pointer -> pointers.put(pointer.getItemId(), pointer));
+        }
+
+        for (Long itemId : itemIds) {
+            ItemBookingPointer pointer = pointers.get(itemId);
+            Booking nextBooking = next.get(itemId);
+
+            pointer.setLastBooking(last.get(itemId));
+            pointer.setNextBooking(nextBooking);
+            pointer.setValidUntil(nextBooking == null ? null : nextBooking.getStart());
+        }
+
+        pointerStorage.saveAll(pointers.values());
+    }
 }
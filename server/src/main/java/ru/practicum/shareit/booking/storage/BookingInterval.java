@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.time.LocalDateTime;
+
+/**
+ * Время бронирования без вещи и арендатора - для построения индекса интервалов
+ */
+public interface BookingInterval {
+    Long getId();
+
+    Long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
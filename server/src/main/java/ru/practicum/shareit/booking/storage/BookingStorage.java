@@ -1,63 +1,100 @@
 package ru.practicum.shareit.booking.storage;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-
-public interface BookingStorage extends JpaRepository<Booking, Long> {
-    // ALL
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long userId, Pageable pageable);
-
-    // CURRENT
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(Long userId, LocalDateTime start,
-                                                                                 LocalDateTime end, Pageable pageable);
-
-    // PAST
-    List<Booking> findAllByBookerIdAndEndIsBeforeOrderByStartDesc(Long userId, LocalDateTime now, Pageable pageable);
-
-    // FUTURE
-    List<Booking> findAllByBookerIdAndStartIsAfterOrderByStartDesc(Long userId, LocalDateTime now, Pageable pageable);
-
-    // WAITING
-    List<Booking> findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc(Long userId, LocalDateTime now,
-                                                                            BookingStatus status, Pageable pageable);
-
-    // REJECTED
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatus status, Pageable pageable);
-
-    // ALL
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
-
-    // CURRENT
-    List<Booking> findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(Long ownerId, LocalDateTime start,
-                                                                                    LocalDateTime end,
-                                                                                    Pageable pageable);
-
-    // PAST
-    List<Booking> findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(Long ownerId, LocalDateTime now,
-                                                                     Pageable pageable);
-
-    // FUTURE
-    List<Booking> findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(Long ownerId, LocalDateTime now,
-                                                                      Pageable pageable);
-
-    // WAITING
-    List<Booking> findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc(Long ownerId, LocalDateTime now,
-                                                                               BookingStatus status, Pageable pageable);
-
-    // REJECTED
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findFirstByItemIdInAndStartBeforeAndStatusOrderByEndDesc(List<Long> itemsId, LocalDateTime now,
-                                                                           BookingStatus status);
-
-    List<Booking> findFirstByItemIdInAndStartAfterAndStatusOrderByStartAsc(List<Long> itemsId, LocalDateTime now,
-                                                                           BookingStatus status);
-
-    Optional<Booking> findFirstByItemIdAndBookerIdAndEndBefore(Long itemId, Long bookerId, LocalDateTime now);
-}
\ No newline at end of file
+import java.util.stream.Collectors;
+
+/**
+ * Запросы заданы явно: для производных запросов по booker.id и item.id Hibernate добавляет
+ * соединение с users и items и фильтрует по их первичному ключу, из-за чего индексы bookings не используются.
+ * Вещь, её владелец и арендатор, которые нужны для BookingDto, загружаются тем же запросом через граф сущности
+ */
+public interface BookingStorage extends JpaRepository<Booking, Long>, BookingStorageCustom {
+    @Override
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findById(Long id);
+
+    /**
+     * Последнее начавшееся бронирование каждой вещи из списка: по одной записи на вещь
+     */
+    default List<Booking> findLastPerItem(Collection<Long> itemIds, LocalDateTime now, BookingStatus status) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        return findAllWithItemAndBooker(findLastIdsPerItem(itemIds, now, status.name()));
+    }
+
+    /**
+     * Ближайшее будущее бронирование каждой вещи из списка: по одной записи на вещь
+     */
+    default List<Booking> findNextPerItem(Collection<Long> itemIds, LocalDateTime now, BookingStatus status) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        return findAllWithItemAndBooker(findNextIdsPerItem(itemIds, now, status.name()));
+    }
+
+    // Для BIGINT в нативных запросах Hibernate возвращает BigInteger на PostgreSQL и Long на H2
+    private List<Booking> findAllWithItemAndBooker(List<Number> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return findAllByIdIn(ids.stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList()));
+    }
+
+    // Ограничение First у запросов с @Query не применяется, поэтому первая запись берётся через Pageable
+    default Optional<Booking> findFirstByItemIdAndBookerIdAndEndBefore(Long itemId, Long bookerId,
+                                                                       LocalDateTime now) {
+        return findAllByItemIdAndBookerIdAndEndBefore(itemId, bookerId, now, PageRequest.of(0, 1)).stream()
+                .findFirst();
+    }
+
+    // Окна по item_id идут по индексам IX_BOOKING_ITEM_STATUS_END и IX_BOOKING_ITEM_STATUS_START
+    @Query(value = "SELECT booking_id FROM (SELECT booking_id, ROW_NUMBER() OVER (PARTITION BY item_id "
+            + "ORDER BY end_booking DESC, booking_id DESC) AS rn FROM bookings "
+            + "WHERE item_id IN (?1) AND status = ?3 AND start_booking < ?2) AS ranked WHERE rn = 1",
+            nativeQuery = true)
+    List<Number> findLastIdsPerItem(Collection<Long> itemIds, LocalDateTime now, String status);
+
+    @Query(value = "SELECT booking_id FROM (SELECT booking_id, ROW_NUMBER() OVER (PARTITION BY item_id "
+            + "ORDER BY start_booking, booking_id) AS rn FROM bookings "
+            + "WHERE item_id IN (?1) AND status = ?3 AND start_booking > ?2) AS ranked WHERE rn = 1",
+            nativeQuery = true)
+    List<Number> findNextIdsPerItem(Collection<Long> itemIds, LocalDateTime now, String status);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    List<Booking> findAllByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @Query("SELECT b FROM Booking b WHERE b.item.id = ?1 AND b.booker.id = ?2 AND b.end < ?3")
+    List<Booking> findAllByItemIdAndBookerIdAndEndBefore(Long itemId, Long bookerId, LocalDateTime now,
+                                                         Pageable pageable);
+
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b "
+            + "WHERE b.status IN ?1 AND b.end > ?2")
+    List<BookingInterval> findIntervals(Collection<BookingStatus> statuses, LocalDateTime now);
+
+    /**
+     * Смена статуса, только если бронирование не менялось с момента чтения версии.
+     * Возвращает число обновлённых строк: 0 означает, что статус успел сменить другой запрос
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ?2, b.version = b.version + 1 WHERE b.id = ?1 AND b.version = ?3")
+    int updateStatus(Long id, BookingStatus status, Long version);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.id IN ?1 AND b.status IN ?2")
+    List<Long> findIdsByIdInAndStatusIn(Collection<Long> ids, Collection<BookingStatus> statuses);
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Списки бронирований пользователя в заданной роли и состоянии одним запросом:
+ * вещь, её владелец и бронирующий выбираются вместе с бронированием, но только столбцы,
+ * нужные для BookingDto. Возвращаемые объекты не связаны с контекстом постоянства.
+ * Порядок - по убыванию начала, при равном начале - по убыванию id
+ */
+public interface BookingStorageCustom {
+    List<Booking> findPage(BookingRole role, Long userId, BookingState state, LocalDateTime now, Pageable pageable);
+
+    /**
+     * Страница, начинающаяся сразу после курсора (с начала списка, если курсор не задан).
+     * Смещение не используется, поэтому время выборки не зависит от глубины страницы
+     */
+    List<Booking> findPageAfter(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                BookingCursor after, int limit);
+
+    /**
+     * Смена статусов одним пакетом JDBC: для каждого бронирования условный UPDATE по его версии,
+     * как в BookingStorage.updateStatus. Возвращает число обновлённых строк по каждому бронированию
+     * в том же порядке, 0 - бронирование успел изменить другой запрос. Контекст постоянства очищается
+     */
+    int[] updateStatuses(List<Booking> bookings, List<BookingStatus> statuses);
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.hibernate.Session;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.*;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class BookingStorageCustomImpl implements BookingStorageCustom {
+    private static final String UPDATE_STATUS = "UPDATE bookings SET status = ?, version = version + 1 "
+            + "WHERE booking_id = ? AND version = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findPage(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                  Pageable pageable) {
+        return query(role, userId, state, now, null)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultStream()
+                .map(BookingStorageCustomImpl::toBooking)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Booking> findPageAfter(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                       BookingCursor after, int limit) {
+        return query(role, userId, state, now, after)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(BookingStorageCustomImpl::toBooking)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int[] updateStatuses(List<Booking> bookings, List<BookingStatus> statuses) {
+        Session session = entityManager.unwrap(Session.class);
+        // Изменения, сделанные до пакета, должны попасть в базу раньше него
+        session.flush();
+
+        int[] updated = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_STATUS)) {
+                for (int i = 0; i < bookings.size(); i++) {
+                    statement.setString(1, statuses.get(i).name());
+                    statement.setLong(2, bookings.get(i).getId());
+                    statement.setLong(3, bookings.get(i).getVersion());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+
+        session.clear();
+        return updated;
+    }
+
+    /**
+     * Выбираются только столбцы, которые читает DtoMapper.toDto(Booking): бронирование, вещь, её владелец
+     * и арендатор одним запросом. Сущности в контекст постоянства не попадают, результат собирается
+     * в несвязанные с ним объекты без версии
+     */
+    private TypedQuery<Tuple> query(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                    BookingCursor after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item", JoinType.INNER);
+        Join<Item, User> owner = item.join("owner", JoinType.INNER);
+        Join<Booking, User> booker = booking.join("booker", JoinType.INNER);
+
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+        Path<BookingStatus> status = booking.get("status");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(role == BookingRole.BOOKER
+                ? cb.equal(booker.get("id"), userId)
+                : cb.equal(owner.get("id"), userId));
+
+        switch (state) {
+            case ALL:
+                break;
+            case CURRENT:
+                predicates.add(cb.lessThan(start, now));
+                predicates.add(cb.greaterThan(end, now));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(end, now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(start, now));
+                break;
+            case WAITING:
+                predicates.add(cb.greaterThan(start, now));
+                predicates.add(cb.equal(status, BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(status, BookingStatus.REJECTED));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown state: " + state);
+        }
+
+        if (after != null) {
+            // Условие start <= курсора избыточно, но позволяет базе начать просмотр индекса сразу с курсора
+            predicates.add(cb.lessThanOrEqualTo(start, after.getStart()));
+            predicates.add(cb.or(cb.lessThan(start, after.getStart()),
+                    cb.and(cb.equal(start, after.getStart()), cb.lessThan(id, after.getId()))));
+        }
+
+        query.multiselect(id, start, end, status,
+                        item.get("id"), item.get("name"), item.get("description"), item.get("available"),
+                        item.get("requestId"),
+                        owner.get("id"), owner.get("name"), owner.get("email"),
+                        booker.get("id"), booker.get("name"), booker.get("email"))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+
+        return entityManager.createQuery(query);
+    }
+
+    private static Booking toBooking(Tuple row) {
+        User owner = new User(row.get(9, Long.class), row.get(10, String.class), row.get(11, String.class));
+        Item item = new Item(row.get(4, Long.class), row.get(5, String.class), row.get(6, String.class),
+                row.get(7, Boolean.class), owner, row.get(8, Long.class));
+        User booker = new User(row.get(12, Long.class), row.get(13, String.class), row.get(14, String.class));
+
+        return new Booking(row.get(0, Long.class), row.get(1, LocalDateTime.class), row.get(2, LocalDateTime.class),
+                item, booker, row.get(3, BookingStatus.class), null);
+    }
+}
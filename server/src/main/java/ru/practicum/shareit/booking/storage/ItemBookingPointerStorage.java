@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.ItemBookingPointer;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingPointerStorage extends JpaRepository<ItemBookingPointer, Long>,
+        ItemBookingPointerStorageCustom {
+    /**
+     * Указатели вместе с бронированиями, их вещами, владельцами и арендаторами - соединения только по первичным ключам
+     */
+    @EntityGraph(attributePaths = {"lastBooking", "lastBooking.item", "lastBooking.item.owner", "lastBooking.booker",
+            "nextBooking", "nextBooking.item", "nextBooking.item.owner", "nextBooking.booker"})
+    List<ItemBookingPointer> findAllByItemIdIn(Collection<Long> itemIds);
+
+    @Query("SELECT p.itemId FROM ItemBookingPointer p WHERE p.validUntil < ?1")
+    List<Long> findStaleItemIds(LocalDateTime now);
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.util.Collection;
+
+public interface ItemBookingPointerStorageCustom {
+    /**
+     * Создание пустых указателей для вещей, у которых их ещё нет. Уже существующие строки,
+     * в том числе вставленные параллельной транзакцией, пропускаются без ошибки первичного ключа:
+     * в PostgreSQL - через ON CONFLICT DO NOTHING, в H2 - через MERGE по ключу
+     */
+    void insertMissing(Collection<Long> itemIds);
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+
+class ItemBookingPointerStorageCustomImpl implements ItemBookingPointerStorageCustom {
+    private static final String INSERT_POSTGRESQL = "INSERT INTO item_booking_pointers (item_id) VALUES (?) "
+            + "ON CONFLICT (item_id) DO NOTHING";
+    private static final String MERGE_H2 = "MERGE INTO item_booking_pointers (item_id) KEY (item_id) VALUES (?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertMissing(Collection<Long> itemIds) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            String sql = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+                    ? INSERT_POSTGRESQL
+                    : MERGE_H2;
+
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Long itemId : itemIds) {
+                    statement.setLong(1, itemId);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
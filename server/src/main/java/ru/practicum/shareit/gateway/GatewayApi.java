@@ -2,12 +2,21 @@ package ru.practicum.shareit.gateway;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingPointer;
+import ru.practicum.shareit.booking.model.TimeWindow;
+import ru.practicum.shareit.booking.service.BookingLocks;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NoDataFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -15,34 +24,96 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoFull;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.SearchSort;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.utils.DtoMapper;
 import ru.practicum.shareit.utils.Validator;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class GatewayApi {
+    public static final int MAX_IMPORT = 1_000;
+    public static final int MAX_STATUS_BATCH = 100;
+
     private final Validator validator;
+    private final javax.validation.Validator beanValidator;
     private final DtoMapper dtoMapper;
     private final UserService userService;
     private final ItemService itemService;
     private final BookingService bookingService;
     private final ItemRequestService requestService;
+    private final BookingLocks bookingLocks;
 
     public UserDto createUser(User user) {
         return dtoMapper.toDto(userService.createUser(user));
     }
 
+    /**
+     * Импорт пакета пользователей. Каждая запись проверяется отдельно теми же ограничениями User, что и
+     * при создании одного пользователя, повторы адресов внутри пакета и занятые адреса находятся до вставки
+     * (занятые - одним запросом), годные записи вставляются одним пакетом JDBC.
+     * Результат по каждой записи в порядке запроса
+     */
+    public List<UserImportResultDto> importUsers(List<UserDto> users) {
+        if (users.isEmpty() || users.size() > MAX_IMPORT) {
+            throw new ValidationException(String.format("В пакете должно быть от 1 до %d пользователей", MAX_IMPORT));
+        }
+
+        Map<String, Long> counts = users.stream()
+                .filter(Objects::nonNull)
+                .map(UserDto::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(email -> email, Collectors.counting()));
+        Set<String> taken = userService.getTakenEmails(counts.keySet());
+
+        List<UserImportResultDto> results = new ArrayList<>();
+        List<User> accepted = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            UserDto user = users.get(i);
+            User entity = user == null ? null : dtoMapper.toEntity(user);
+            String violation = entity == null ? "Имя не может быть пустым!" : findViolation(entity);
+            String email = user == null ? null : user.getEmail();
+
+            if (violation != null) {
+                results.add(importFailure(i, HttpStatus.BAD_REQUEST, violation));
+            } else if (counts.get(email) > 1) {
+                results.add(importFailure(i, HttpStatus.BAD_REQUEST,
+                        "Адрес электронной почты указан в пакете несколько раз"));
+            } else if (taken.contains(email)) {
+                results.add(importFailure(i, HttpStatus.CONFLICT,
+                        String.format("Адрес электронной почты '%s' занят!", email)));
+            } else {
+                // Заменяется созданным пользователем после вставки пакета
+                results.add(null);
+                accepted.add(entity);
+            }
+        }
+
+        Iterator<User> created = userService.importUsers(accepted).iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, new UserImportResultDto(i, HttpStatus.CREATED.value(),
+                        dtoMapper.toDto(created.next()), null));
+            }
+        }
+
+        return results;
+    }
+
     public UserDto getUser(Long userId) {
         return dtoMapper.toDto(userService.getUser(userId));
     }
@@ -53,6 +124,34 @@ public class GatewayApi {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Страница пользователей после курсора: пустой курсор - первая страница, иначе id последнего
+     * пользователя предыдущей страницы
+     */
+    public List<UserDto> getUsersAfter(String after, Integer size) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть больше нуля");
+        }
+
+        Long afterId;
+        try {
+            afterId = after.isEmpty() ? 0L : Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный курсор: " + after);
+        }
+
+        return userService.getUsersAfter(afterId, size).stream()
+                .map(dtoMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Передача всех пользователей по одному без сбора в список, для выгрузки в потоковом ответе
+     */
+    public void forEachUser(Consumer<UserDto> action) {
+        userService.forEachUser(user -> action.accept(dtoMapper.toDto(user)));
+    }
+
     public UserDto updateUser(Long id, User newUser) {
         return dtoMapper.toDto(userService.updateUser(id, newUser));
     }
@@ -84,19 +183,18 @@ public class GatewayApi {
         }
 
         if (item.getOwner().getId().equals(ownerId)) {
-            List<Booking> lastList = bookingService.getLastOrNext(List.of(item.getId()), "last");
-            List<Booking> nextList = bookingService.getLastOrNext(List.of(item.getId()), "next");
-            Booking last = lastList.isEmpty() ? null : lastList.get(0);
-            Booking next = nextList.isEmpty() ? null : nextList.get(0);
+            ItemBookingPointer pointer = bookingService.getLastAndNext(List.of(item.getId())).get(item.getId());
 
-            return dtoMapper.toItemDtoFull(item, last, next, comments);
+            if (pointer != null) {
+                return dtoMapper.toItemDtoFull(item, pointer.getLastBooking(), pointer.getNextBooking(), comments);
+            }
         }
 
         return dtoMapper.toItemDtoFull(item, null, null, comments);
     }
 
     public List<ItemDtoFull> getAllByUser(Long userId, Integer from, Integer size) {
-        userService.getUser(userId);
+        checkUserExists(userId);
 
         List<Item> items = itemService.getAllByUser(userId, PageRequest.of(from / size, size));
 
@@ -104,23 +202,17 @@ public class GatewayApi {
                 .map(Item::getId)
                 .collect(Collectors.toList());
 
-        List<Booking> lastList = bookingService.getLastOrNext(itemsId, "last");
-        List<Booking> nextList = bookingService.getLastOrNext(itemsId, "next");
-
-        Map<Long, Booking> lastMap = lastList.stream()
-                .collect(Collectors.toMap(booking -> booking.getItem().getId(),
-                        booking -> booking));
-        Map<Long, Booking> nextMap = nextList.stream()
-                .collect(Collectors.toMap(booking -> booking.getItem().getId(),
-                        booking -> booking));
+        Map<Long, ItemBookingPointer> pointers = bookingService.getLastAndNext(itemsId);
+        Map<Long, List<Comment>> commentsMap = itemService.getCommentsByItems(itemsId);
 
 
         return items.stream()
                 .sorted(Comparator.comparing(Item::getId))
                 .map(item -> {
-                    Booking last = lastMap.get(item.getId());
-                    Booking next = nextMap.get(item.getId());
-                    List<Comment> comments = itemService.getCommentsByItem(item.getId());
+                    ItemBookingPointer pointer = pointers.get(item.getId());
+                    Booking last = pointer == null ? null : pointer.getLastBooking();
+                    Booking next = pointer == null ? null : pointer.getNextBooking();
+                    List<Comment> comments = commentsMap.getOrDefault(item.getId(), List.of());
                     return dtoMapper.toItemDtoFull(item, last, next, comments);
                 })
                 .collect(Collectors.toList());
@@ -140,21 +232,27 @@ public class GatewayApi {
         return itemService.deleteItem(itemId);
     }
 
-    public List<ItemDto> searchByName(String text, Integer from, Integer size) {
+    public List<ItemDto> searchByName(String text, Integer from, Integer size, String sort, Boolean fuzzy) {
+        SearchSort searchSort = SearchSort.from(sort).orElseThrow(
+                () -> new IllegalArgumentException("Unknown sort: " + sort));
+
         if (text.isBlank()) {
             return new ArrayList<>();
         }
 
-        String searchName = text.toLowerCase();
-        List<Item> items = itemService.getAllItems(PageRequest.of(from / size, size));
-        return items.stream()
-                .filter(item -> (item.getName().toLowerCase().contains(searchName)
-                        || item.getDescription().toLowerCase().contains(searchName))
-                        && item.getAvailable().equals(true))
+        return itemService.searchItems(text, PageRequest.of(from / size, size), searchSort, fuzzy).stream()
                 .map(dtoMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    public List<String> suggestNames(String prefix, Integer size) {
+        if (size <= 0) {
+            throw new ValidationException("Количество подсказок должно быть больше нуля");
+        }
+
+        return itemService.suggestNames(prefix, size);
+    }
+
     public BookingDto createBooking(BookingDto bookingDto, Long userId) {
         User user = userService.getUser(userId);
         Item item = itemService.getItem(bookingDto.getItemId());
@@ -162,9 +260,13 @@ public class GatewayApi {
         booking.setBooker(user);
         booking.setItem(item);
 
-        validator.checkBooking(booking);
+        // Проверка пересечений и сохранение под блокировкой вещи, иначе две одновременные брони пройдут проверку
+        Booking saved = bookingLocks.withItemLock(item.getId(), () -> {
+            validator.checkBooking(booking);
+            return bookingService.createBooking(booking);
+        });
 
-        return dtoMapper.toDto(bookingService.createBooking(booking));
+        return dtoMapper.toDto(saved);
     }
 
     public BookingDto getBooking(Long bookingId, Long userId) {
@@ -191,17 +293,71 @@ public class GatewayApi {
             throw new ValidationException("Бронирование уже одобрено");
         }
 
-        if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+        if (needsOverlapCheck(booking, status)) {
+            return dtoMapper.toDto(approveWithOverlapCheck(booking));
+        }
+
+        return dtoMapper.toDto(bookingService.updateStatus(booking, status));
+    }
+
+    /**
+     * Смена статусов нескольких бронирований владельцем: бронирования с вещами и владельцами читаются
+     * одним запросом, статусы меняются одним пакетом. Ошибка по одному бронированию не мешает остальным.
+     * Результат по каждому элементу запроса в том же порядке, повторы бронирования отклоняются все.
+     * Одобрение брони, которой нет в индексе интервалов, выполняется отдельно под блокировкой вещи
+     */
+    public List<BookingStatusResultDto> setStatuses(List<BookingStatusChangeDto> changes, Long userId) {
+        if (changes.isEmpty() || changes.size() > MAX_STATUS_BATCH) {
+            throw new ValidationException(String.format("В пакете должно быть от 1 до %d бронирований",
+                    MAX_STATUS_BATCH));
+        }
+
+        Map<Long, Long> counts = changes.stream()
+                .collect(Collectors.groupingBy(BookingStatusChangeDto::getBookingId, Collectors.counting()));
+        Map<Long, Booking> bookings = bookingService.getBookings(counts.keySet()).stream()
+                .collect(Collectors.toMap(Booking::getId, booking -> booking));
+
+        List<BookingStatusResultDto> results = new ArrayList<>();
+        Map<Long, Integer> positions = new HashMap<>();
+        List<Booking> accepted = new ArrayList<>();
+        List<BookingStatus> statuses = new ArrayList<>();
+        for (BookingStatusChangeDto change : changes) {
+            Long bookingId = change.getBookingId();
+            Booking booking = bookings.get(bookingId);
+            BookingStatus status = change.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+            if (counts.get(bookingId) > 1) {
+                results.add(failure(bookingId, HttpStatus.BAD_REQUEST,
+                        "Бронирование указано в запросе несколько раз"));
+            } else if (booking == null || !Objects.equals(booking.getItem().getOwner().getId(), userId)) {
+                results.add(failure(bookingId, HttpStatus.NOT_FOUND,
+                        "Запрос на изменение статуса бронирования доступен только для владельца вещи"));
+            } else if (booking.getStatus().equals(BookingStatus.APPROVED)) {
+                results.add(failure(bookingId, HttpStatus.BAD_REQUEST, "Бронирование уже одобрено"));
+            } else if (needsOverlapCheck(booking, status)) {
+                results.add(approveOne(booking));
+            } else {
+                // Заменяется успешным результатом, если условный UPDATE изменил бронирование
+                positions.put(bookingId, results.size());
+                results.add(failure(bookingId, HttpStatus.CONFLICT,
+                        "Статус бронирования уже изменён другим запросом"));
+                accepted.add(booking);
+                statuses.add(status);
+            }
+        }
+
+        for (Booking booking : bookingService.updateStatuses(accepted, statuses)) {
+            results.set(positions.get(booking.getId()), new BookingStatusResultDto(booking.getId(),
+                    HttpStatus.OK.value(), dtoMapper.toDto(booking), null));
         }
 
-        return dtoMapper.toDto(bookingService.createBooking(booking));
+        return results;
     }
 
     public List<BookingDto> getAllBookingByUser(Long userId, String state, Integer from, Integer size) {
-        userService.getUser(userId); // Проверяем существует ли такой пользователь
+        checkUserExists(userId);
         BookingState bookingState = BookingState.from(state).orElseThrow(
                 () -> new IllegalArgumentException("Unknown state: " + state));
 
@@ -211,7 +367,7 @@ public class GatewayApi {
     }
 
     public List<BookingDto> getAllBookingByOwner(Long userId, String state, Integer from, Integer size) {
-        userService.getUser(userId); // Проверяем существует ли такой пользователь
+        checkUserExists(userId);
         BookingState bookingState = BookingState.from(state).orElseThrow(
                 () -> new IllegalArgumentException("Unknown state: " + state));
 
@@ -220,6 +376,44 @@ public class GatewayApi {
                 .collect(Collectors.toList());
     }
 
+    public List<BookingDto> getAllBookingByUserAfter(Long userId, String state, String after, Integer size) {
+        return getBookingsAfter(BookingRole.BOOKER, userId, state, after, size);
+    }
+
+    public List<BookingDto> getAllBookingByOwnerAfter(Long userId, String state, String after, Integer size) {
+        return getBookingsAfter(BookingRole.OWNER, userId, state, after, size);
+    }
+
+    /**
+     * Постраничный вывод по ключу: пустой курсор означает первую страницу
+     */
+    private List<BookingDto> getBookingsAfter(BookingRole role, Long userId, String state, String after,
+                                              Integer size) {
+        checkUserExists(userId);
+        BookingState bookingState = BookingState.from(state).orElseThrow(
+                () -> new IllegalArgumentException("Unknown state: " + state));
+        BookingCursor cursor = after.isBlank() ? null : BookingCursor.decode(after);
+
+        return bookingService.getBookingsAfter(role, userId, bookingState, cursor, size).stream()
+                .map(dtoMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    public String getAvailabilityVersion(Long itemId) {
+        itemService.getItem(itemId); // Версия есть и у несуществующей вещи, поэтому сначала проверяем вещь
+
+        return bookingService.getAvailabilityVersion(itemId);
+    }
+
+    public List<TimeWindow> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+        itemService.getItem(itemId); // Проверяем существует ли такая вещь
+
+        return bookingService.getFreeWindows(itemId, from, to);
+    }
+
     public CommentDto createComment(Long userId, Long itemId, Comment comment) {
         Booking booking = bookingService.getBookingByUserAndItem(userId, itemId).orElseThrow(
                 () -> new ValidationException(String.format("Пользователь с id=%d" +
@@ -244,7 +438,7 @@ public class GatewayApi {
     }
 
     public List<ItemRequestDto> getRequestsByUser(Long userId) {
-        userService.getUser(userId);
+        checkUserExists(userId);
         List<ItemRequest> itemRequests = requestService.getRequestsByUser(userId);
         List<Long> requestsId = itemRequests.stream()
                 .map(ItemRequest::getId)
@@ -275,10 +469,65 @@ public class GatewayApi {
     }
 
     public ItemRequestDto getRequest(Long userId, Long requestId) {
-        userService.getUser(userId);
+        checkUserExists(userId);
         ItemRequest itemRequest = requestService.getRequest(requestId);
         List<Item> items = itemService.getAllByRequestsId(List.of(requestId));
         return dtoMapper.toDto(itemRequest, items);
     }
 
-}
\ No newline at end of file
+    // Проверка существования пользователя по множеству id без загрузки самого пользователя
+    private void checkUserExists(Long userId) {
+        if (!userService.existsById(userId)) {
+            throw new NoDataFoundException(String.format("Пользователь с id=%d не найден", userId));
+        }
+    }
+
+    /**
+     * Первое нарушенное ограничение записи импорта: сначала по имени, затем по адресу.
+     * Пустой адрес нарушает и @NotBlank, и @Email, в ответ попадает сообщение о пустом значении
+     */
+    private String findViolation(User user) {
+        for (String property : List.of("name", "email")) {
+            Optional<String> message = beanValidator.validateProperty(user, property).stream()
+                    .min(Comparator.comparing((ConstraintViolation<User> violation) ->
+                            !(violation.getConstraintDescriptor().getAnnotation() instanceof NotBlank)))
+                    .map(ConstraintViolation::getMessage);
+            if (message.isPresent()) {
+                return message.get();
+            }
+        }
+        return null;
+    }
+
+    private static UserImportResultDto importFailure(int index, HttpStatus status, String error) {
+        return new UserImportResultDto(index, status.value(), null, error);
+    }
+
+    /**
+     * Одобряемой брони нет в индексе интервалов (она отклонена или отменена), поэтому её время
+     * могли занять другие брони и его нужно проверить, как при создании
+     */
+    private static boolean needsOverlapCheck(Booking booking, BookingStatus status) {
+        return status == BookingStatus.APPROVED && booking.getStatus() != BookingStatus.WAITING;
+    }
+
+    private Booking approveWithOverlapCheck(Booking booking) {
+        return bookingLocks.withItemLock(booking.getItem().getId(), () -> {
+            validator.checkOverlapOnApprove(booking);
+            return bookingService.updateStatus(booking, BookingStatus.APPROVED);
+        });
+    }
+
+    private BookingStatusResultDto approveOne(Booking booking) {
+        try {
+            return new BookingStatusResultDto(booking.getId(), HttpStatus.OK.value(),
+                    dtoMapper.toDto(approveWithOverlapCheck(booking)), null);
+        } catch (ConflictException exception) {
+            return failure(booking.getId(), HttpStatus.CONFLICT, exception.getMessage());
+        }
+    }
+
+    private static BookingStatusResultDto failure(Long bookingId, HttpStatus status, String error) {
+        return new BookingStatusResultDto(bookingId, status.value(), null, error);
+    }
+}
@@ -2,7 +2,13 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.model.TimeWindow;
 import ru.practicum.shareit.gateway.GatewayApi;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -11,6 +17,7 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -61,9 +68,47 @@ public class ItemController {
     @GetMapping("/search")
     public List<ItemDto> searchByName(@RequestParam String text,
                                       @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                      @RequestParam(value = "size", defaultValue = "100") Integer size) {
+                                      @RequestParam(value = "size", defaultValue = "100") Integer size,
+                                      @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                      @RequestParam(value = "fuzzy", defaultValue = "false") Boolean fuzzy) {
         log.info("Запрос на поиск по названию.");
-        return gatewayApi.searchByName(text, from, size);
+        return gatewayApi.searchByName(text, from, size, sort, fuzzy);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestNames(@RequestParam String prefix,
+                                     @RequestParam(value = "size", defaultValue = "10") Integer size) {
+        log.info("Запрос на дополнение названия.");
+        return gatewayApi.suggestNames(prefix, size);
+    }
+
+    /**
+     * Свободное время вещи для календаря. ETag меняется только при изменении бронирований вещи,
+     * поэтому повторный запрос с If-None-Match получает 304 без вычисления промежутков
+     */
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<List<TimeWindow>> getAvailability(@PathVariable Long itemId,
+                                                            @RequestParam
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                            LocalDateTime from,
+                                                            @RequestParam
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                            LocalDateTime to,
+                                                            WebRequest request) {
+        log.info("Запрос свободного времени вещи.");
+        String etag = "\"" + gatewayApi.getAvailabilityVersion(itemId) + "\"";
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(gatewayApi.getAvailability(itemId, from, to));
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Облегчённый стеммер английского языка: множественное число и окончания -ing/-ed.
+ * Названия вещей в основном существительные, полный алгоритм Портера здесь избыточен
+ */
+final class EnglishStemmer {
+    private static final String VOWELS = "aeiouy";
+
+    private EnglishStemmer() {
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+
+        String stem = plural(word);
+        if (stem.endsWith("ing")) {
+            return verb(stem, 3);
+        }
+        if (stem.endsWith("ed")) {
+            return verb(stem, 2);
+        }
+        return stem;
+    }
+
+    private static String plural(String word) {
+        if (word.endsWith("ies") && word.length() > 4) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("sses") || word.endsWith("shes") || word.endsWith("ches")
+                || word.endsWith("xes") || word.endsWith("zes")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    /**
+     * Окончание отбрасывается, если в оставшейся основе из трёх и более букв есть гласная.
+     * Удвоенная согласная на конце основы (running) сокращается
+     */
+    private static String verb(String word, int suffix) {
+        String stem = word.substring(0, word.length() - suffix);
+        if (stem.length() < 3 || stem.chars().noneMatch(c -> VOWELS.indexOf(c) >= 0)) {
+            return word;
+        }
+
+        int last = stem.length() - 1;
+        char c = stem.charAt(last);
+        if (c == stem.charAt(last - 1) && VOWELS.indexOf(c) < 0 && c != 'l' && c != 's' && c != 'z') {
+            return stem.substring(0, last);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.*;
+
+/**
+ * Словарь удалений в духе SymSpell: каждое слово индекса хранится вместе со всеми вариантами
+ * с одним удалённым символом. Слова на расстоянии Дамерау-Левенштейна не больше одного
+ * находятся поиском по удалениям из слова запроса, без перебора всего словаря
+ */
+final class FuzzyVocabulary {
+    // Для коротких слов одна опечатка даёт слишком много ложных совпадений
+    static final int MIN_LENGTH = 4;
+
+    private final Map<String, Set<String>> deletes = new HashMap<>();
+
+    void add(String word) {
+        if (word.length() < MIN_LENGTH) {
+            return;
+        }
+
+        for (String key : keys(word)) {
+            deletes.computeIfAbsent(key, k -> new HashSet<>(2)).add(word);
+        }
+    }
+
+    void remove(String word) {
+        if (word.length() < MIN_LENGTH) {
+            return;
+        }
+
+        for (String key : keys(word)) {
+            Set<String> words = deletes.get(key);
+            if (words != null) {
+                words.remove(word);
+                if (words.isEmpty()) {
+                    deletes.remove(key);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        deletes.clear();
+    }
+
+    /**
+     * Слова словаря, отличающиеся от заданного не больше чем на одну правку
+     */
+    Set<String> lookup(String token) {
+        if (token.length() < MIN_LENGTH) {
+            return Set.of();
+        }
+
+        Set<String> result = new HashSet<>();
+        for (String key : keys(token)) {
+            Set<String> words = deletes.get(key);
+            if (words == null) {
+                continue;
+            }
+
+            for (String word : words) {
+                if (withinOneEdit(token, word)) {
+                    result.add(word);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static Set<String> keys(String word) {
+        Set<String> keys = new HashSet<>();
+        keys.add(word);
+
+        for (int i = 0; i < word.length(); i++) {
+            keys.add(word.substring(0, i) + word.substring(i + 1));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Вставка, удаление, замена или перестановка соседних символов
+     */
+    static boolean withinOneEdit(String a, String b) {
+        if (a.length() > b.length()) {
+            return withinOneEdit(b, a);
+        }
+        if (b.length() - a.length() > 1) {
+            return false;
+        }
+
+        int i = 0;
+        while (i < a.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (i == a.length()) {
+            return true;
+        }
+
+        if (a.length() < b.length()) {
+            return a.regionMatches(i, b, i + 1, a.length() - i);
+        }
+
+        boolean substitution = a.regionMatches(i + 1, b, i + 1, a.length() - i - 1);
+        boolean transposition = i + 1 < a.length()
+                && a.charAt(i) == b.charAt(i + 1)
+                && a.charAt(i + 1) == b.charAt(i)
+                && a.regionMatches(i + 2, b, i + 2, a.length() - i - 2);
+
+        return substitution || transposition;
+    }
+}
@@ -0,0 +1,486 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Инвертированный индекс по названию и описанию доступных вещей.
+ * Подстроки от трёх символов ищутся по индексу триграмм, более короткие запросы - по словарю слов.
+ * Кроме того, находятся вещи с другими формами слов запроса (по основам из TextAnalyzer).
+ * Поддерживается в актуальном состоянии ItemSearchUpdater после фиксации изменений вещей
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private final ItemStorage itemStorage;
+    private final TextAnalyzer analyzer;
+
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Set<String>> forms = new HashMap<>();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final SuggestIndex suggestions = new SuggestIndex();
+    private final FuzzyVocabulary vocabulary = new FuzzyVocabulary();
+    private long nameTokenCount;
+    private long descriptionTokenCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Полное построение индекса по таблице items при старте приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Item> items = new ArrayList<>(itemStorage.findAll());
+        items.sort(Comparator.comparing(Item::getId));
+
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            forms.clear();
+            trigrams.clear();
+            suggestions.clear();
+            vocabulary.clear();
+            nameTokenCount = 0;
+            descriptionTokenCount = 0;
+            items.forEach(this::add);
+            postings.values().forEach(PostingList::trim);
+            trigrams.trim();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Поисковый индекс построен, проиндексировано вещей: {}", documents.size());
+    }
+
+    /**
+     * Добавление или переиндексация вещи. Недоступные вещи из индекса убираются.
+     * У уже проиндексированной вещи меняются только списки слов и триграмм, которые появились
+     * или пропали, а при неизменном тексте индекс не трогается вовсе
+     */
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            IndexedItem previous = documents.get(item.getId());
+            if (previous == null || !Boolean.TRUE.equals(item.getAvailable())) {
+                delete(item.getId());
+                add(item);
+            } else {
+                replace(item.getId(), previous, document(item));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            delete(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаление всех вещей владельца: при удалении пользователя база удаляет их каскадом.
+     * Возвращает число убранных из индекса вещей
+     */
+    public int removeByOwner(Long ownerId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> owned = documents.entrySet().stream()
+                    .filter(entry -> Objects.equals(entry.getValue().ownerId, ownerId))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            owned.forEach(this::delete);
+            return owned.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String text, long offset, int limit) {
+        return search(text, offset, limit, SearchSort.ID, false);
+    }
+
+    /**
+     * Поиск подстроки в названии или описании, а также тех же слов запроса подряд в других формах.
+     * Возвращает id найденных вещей в порядке возрастания
+     * либо по убыванию релевантности с учётом смещения и размера страницы.
+     * При нечётком поиске дополнительно находятся вещи, в которых каждое слово запроса
+     * встречается с точностью до одной опечатки
+     */
+    public List<Long> search(String text, long offset, int limit, SearchSort sort, boolean fuzzy) {
+        String query = analyzer.normalize(text);
+
+        lock.readLock().lock();
+        try {
+            List<QueryTerm> terms = analyzer.tokenize(query).stream()
+                    .map(token -> {
+                        String stem = analyzer.stem(token);
+                        return new QueryTerm(token, stem, forms.getOrDefault(stem, Set.of()),
+                                fuzzy ? vocabulary.lookup(token) : Set.of());
+                    })
+                    .collect(Collectors.toList());
+            long[] candidates = findCandidates(query);
+            LongPredicate matches = id -> documents.get(id).contains(query);
+
+            if (!terms.isEmpty()) {
+                long[] inflected = findCandidatesByWords(terms, QueryTerm::forms);
+                candidates = union(candidates, inflected);
+                matches = matches.or(id -> Arrays.binarySearch(inflected, id) >= 0
+                        && containsPhrase(documents.get(id), terms));
+            }
+
+            if (fuzzy && !terms.isEmpty()) {
+                long[] similar = findCandidatesByWords(terms, QueryTerm::variants);
+                candidates = union(candidates, similar);
+                matches = matches.or(id -> Arrays.binarySearch(similar, id) >= 0);
+            }
+
+            return sort == SearchSort.RELEVANCE
+                    ? topByRelevance(terms, candidates, matches, offset, limit)
+                    : firstById(candidates, matches, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Дополнение префикса до слов из названий доступных вещей, самые частые слова первыми
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String normalized = analyzer.normalize(prefix).strip();
+
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            return suggestions.suggest(normalized, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> firstById(long[] candidates, LongPredicate matches, long offset, int limit) {
+        List<Long> result = new ArrayList<>();
+        long skipped = 0;
+
+        for (long id : candidates) {
+            // Кандидат содержит все триграммы (слова) запроса, но не обязательно подряд
+            if (!matches.test(id)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+
+            result.add(id);
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Лучшие offset + limit совпадений отбираются кучей ограниченного размера,
+     * полная сортировка всех совпадений не нужна
+     */
+    private List<Long> topByRelevance(List<QueryTerm> terms, long[] candidates, LongPredicate matches,
+                                      long offset, int limit) {
+        RelevanceScorer scorer = new RelevanceScorer((double) nameTokenCount / Math.max(documents.size(), 1),
+                (double) descriptionTokenCount / Math.max(documents.size(), 1));
+        long top = offset + limit;
+        PriorityQueue<ScoredItem> heap = new PriorityQueue<>(ScoredItem.WORST_FIRST);
+
+        for (long id : candidates) {
+            if (!matches.test(id)) {
+                continue;
+            }
+
+            IndexedItem document = documents.get(id);
+            ScoredItem scored = new ScoredItem(id, scorer.score(terms,
+                    analyzer.tokenize(document.name), analyzer.tokenize(document.description)));
+            if (heap.size() < top) {
+                heap.add(scored);
+            } else if (ScoredItem.WORST_FIRST.compare(scored, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(scored);
+            }
+        }
+
+        LinkedList<Long> ranked = new LinkedList<>();
+        while (!heap.isEmpty()) {
+            ranked.addFirst(heap.poll().id);
+        }
+
+        return ranked.stream()
+                .skip(offset)
+                .collect(Collectors.toList());
+    }
+
+    private long[] findCandidates(String query) {
+        if (query.length() >= TrigramIndex.GRAM) {
+            return trigrams.candidates(query);
+        }
+
+        List<String> queryTokens = analyzer.tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return documents.keySet().stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+        }
+
+        return findCandidatesByVocabulary(queryTokens);
+    }
+
+    /**
+     * Пересечение кандидатов по каждому слову запроса. Слово запроса должно быть подстрокой
+     * хотя бы одного слова документа, поэтому проверяется словарь, а не все вещи
+     */
+    private long[] findCandidatesByVocabulary(List<String> queryTokens) {
+        Set<Long> result = null;
+
+        for (String queryToken : queryTokens) {
+            Set<Long> matched = new HashSet<>();
+            postings.forEach((token, ids) -> {
+                if (token.contains(queryToken)) {
+                    Arrays.stream(ids.toArray()).forEach(matched::add);
+                }
+            });
+
+            if (result == null) {
+                result = matched;
+            } else {
+                result.retainAll(matched);
+            }
+
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+
+        return result.stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Вещи, в которых для каждого слова запроса есть одно из подходящих слов индекса:
+     * другая форма того же слова или вариант на расстоянии не больше одной правки
+     */
+    private long[] findCandidatesByWords(List<QueryTerm> terms, Function<QueryTerm, Set<String>> words) {
+        long[] result = null;
+
+        for (QueryTerm term : terms) {
+            long[] ids = new long[0];
+            for (String word : words.apply(term)) {
+                ids = union(ids, postings.get(word).toArray());
+            }
+
+            result = result == null ? ids : PostingList.intersect(result, ids);
+            if (result.length == 0) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Слова запроса идут в названии или описании подряд, каждое - в какой-либо своей форме
+     */
+    private boolean containsPhrase(IndexedItem document, List<QueryTerm> terms) {
+        return containsPhrase(document.name, terms) || containsPhrase(document.description, terms);
+    }
+
+    private boolean containsPhrase(String field, List<QueryTerm> terms) {
+        List<String> tokens = analyzer.tokenize(field);
+
+        for (int start = 0; start + terms.size() <= tokens.size(); start++) {
+            int matched = 0;
+            while (matched < terms.size()
+                    && terms.get(matched).stem().equals(analyzer.stem(tokens.get(start + matched)))) {
+                matched++;
+            }
+            if (matched == terms.size()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        return LongStream.concat(Arrays.stream(a), Arrays.stream(b))
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private void add(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+
+        IndexedItem document = document(item);
+        documents.put(item.getId(), document);
+
+        for (String token : tokens(document)) {
+            addPosting(token, item.getId());
+        }
+        trigrams.add(item.getId(), document.name, document.description);
+        nameTokenCount += analyzer.tokenize(document.name).size();
+        suggestions.add(new HashSet<>(analyzer.tokenize(document.name)));
+        descriptionTokenCount += analyzer.tokenize(document.description).size();
+    }
+
+    private void delete(Long itemId) {
+        IndexedItem document = documents.remove(itemId);
+
+        if (document == null) {
+            return;
+        }
+
+        for (String token : tokens(document)) {
+            removePosting(token, itemId);
+        }
+        trigrams.remove(itemId, document.name, document.description);
+        nameTokenCount -= analyzer.tokenize(document.name).size();
+        suggestions.remove(new HashSet<>(analyzer.tokenize(document.name)));
+        descriptionTokenCount -= analyzer.tokenize(document.description).size();
+    }
+
+    private void replace(Long itemId, IndexedItem previous, IndexedItem document) {
+        if (previous.name.equals(document.name) && previous.description.equals(document.description)) {
+            return;
+        }
+
+        documents.put(itemId, document);
+
+        Set<String> oldTokens = tokens(previous);
+        Set<String> newTokens = tokens(document);
+        for (String token : oldTokens) {
+            if (!newTokens.contains(token)) {
+                removePosting(token, itemId);
+            }
+        }
+        for (String token : newTokens) {
+            if (!oldTokens.contains(token)) {
+                addPosting(token, itemId);
+            }
+        }
+        trigrams.replace(itemId, new String[]{previous.name, previous.description},
+                new String[]{document.name, document.description});
+
+        List<String> oldName = analyzer.tokenize(previous.name);
+        List<String> newName = analyzer.tokenize(document.name);
+        nameTokenCount += newName.size() - oldName.size();
+        descriptionTokenCount += analyzer.tokenize(document.description).size()
+                - analyzer.tokenize(previous.description).size();
+
+        Set<String> removedWords = new HashSet<>(oldName);
+        removedWords.removeAll(newName);
+        Set<String> addedWords = new HashSet<>(newName);
+        addedWords.removeAll(oldName);
+        suggestions.remove(removedWords);
+        suggestions.add(addedWords);
+    }
+
+    private void addPosting(String token, long itemId) {
+        postings.computeIfAbsent(token, key -> {
+            vocabulary.add(key);
+            forms.computeIfAbsent(analyzer.stem(key), stem -> new HashSet<>(2)).add(key);
+            return new PostingList();
+        }).add(itemId);
+    }
+
+    private void removePosting(String token, long itemId) {
+        PostingList ids = postings.get(token);
+        ids.remove(itemId);
+        if (ids.isEmpty()) {
+            postings.remove(token);
+            vocabulary.remove(token);
+            removeForm(token);
+        }
+    }
+
+    private IndexedItem document(Item item) {
+        return new IndexedItem(item.getOwner() == null ? null : item.getOwner().getId(),
+                analyzer.normalize(item.getName()), analyzer.normalize(item.getDescription()));
+    }
+
+    private void removeForm(String token) {
+        String stem = analyzer.stem(token);
+        Set<String> words = forms.get(stem);
+        words.remove(token);
+        if (words.isEmpty()) {
+            forms.remove(stem);
+        }
+    }
+
+    private Set<String> tokens(IndexedItem document) {
+        Set<String> tokens = new HashSet<>(analyzer.tokenize(document.name));
+        tokens.addAll(analyzer.tokenize(document.description));
+        return tokens;
+    }
+
+    /**
+     * Нормализованный текст вещи. Нужен для проверки кандидатов: пересечение триграмм не гарантирует,
+     * что подстрока запроса встречается целиком, а фраза - подряд, и для оценки релевантности.
+     * Читать текст из базы пришлось бы на каждый запрос, поэтому он хранится в индексе
+     * ценой памяти порядка размера самих полей. Владелец нужен, чтобы убрать его вещи при удалении пользователя
+     */
+    private static final class IndexedItem {
+        private final Long ownerId;
+        private final String name;
+        private final String description;
+
+        private IndexedItem(Long ownerId, String name, String description) {
+            this.ownerId = ownerId;
+            this.name = name;
+            this.description = description;
+        }
+
+        private boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+    }
+
+    private static final class ScoredItem {
+        // Худший - с меньшей оценкой, при равной оценке - с большим id
+        private static final Comparator<ScoredItem> WORST_FIRST = Comparator
+                .comparingDouble((ScoredItem scored) -> scored.score)
+                .thenComparing((ScoredItem scored) -> scored.id, Comparator.reverseOrder());
+
+        private final long id;
+        private final double score;
+
+        private ScoredItem(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
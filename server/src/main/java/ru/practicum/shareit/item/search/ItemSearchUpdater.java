@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+/**
+ * Перенос изменений вещей (в том числе удалённых вместе с владельцем) в поисковый индекс
+ * и сброс затронутых записей кэша поиска.
+ * Выполняется после фиксации транзакции, поэтому неудавшееся изменение индекс не затрагивает
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchUpdater {
+    private final ItemSearchIndex searchIndex;
+    private final SearchResultCache searchCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.getItem();
+
+        if (event.isDeleted()) {
+            searchIndex.remove(item.getId());
+        } else {
+            searchIndex.index(item);
+        }
+
+        // Кэш сбрасывается после изменения индекса, иначе в него могут вернуться прежние результаты
+        if (event.isUpdated()) {
+            searchCache.invalidate(event.getOldName(), event.getOldDescription());
+        }
+        searchCache.invalidate(item.getName(), item.getDescription());
+    }
+
+    /**
+     * Вещи удалённого пользователя база удаляет каскадом. Пользователей удаляют редко,
+     * поэтому кэш сбрасывается целиком, а не по словам каждой вещи
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (searchIndex.removeByOwner(event.getUserId()) > 0) {
+            searchCache.clear();
+        }
+    }
+}
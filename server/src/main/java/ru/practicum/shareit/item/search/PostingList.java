@@ -0,0 +1,217 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Отсортированный список id вещей, хранящийся в виде разностей между соседними id,
+ * закодированных varint в массиве байт. Новые вещи получают возрастающие id,
+ * поэтому добавление обычно сводится к дописыванию в конец. Вставка и удаление в середине
+ * меняют одну-две разности на месте и сдвигают хвост массива, не раскодируя список целиком
+ */
+final class PostingList {
+    private static final long[] EMPTY = new long[0];
+
+    private byte[] data = new byte[4];
+    private int length;
+    private int size;
+    private long last;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(long id) {
+        if (size == 0 || id > last) {
+            append(id);
+            return;
+        }
+
+        long current = 0;
+        int offset = 0;
+        while (offset < length) {
+            int end = skip(offset);
+            long next = current + decode(offset);
+            if (next == id) {
+                return;
+            }
+            if (next > id) {
+                // Разность до следующего id делится на две: до нового id и от него до следующего
+                splice(offset, end, id - current, next - id);
+                size++;
+                return;
+            }
+            current = next;
+            offset = end;
+        }
+    }
+
+    void remove(long id) {
+        if (size == 0 || id > last) {
+            return;
+        }
+
+        long current = 0;
+        int offset = 0;
+        while (offset < length) {
+            int end = skip(offset);
+            long next = current + decode(offset);
+            if (next > id) {
+                return;
+            }
+            if (next == id) {
+                if (end == length) {
+                    length = offset;
+                    last = current;
+                } else {
+                    // Разность удаляемого id сливается с разностью следующего
+                    splice(offset, skip(end), id - current + decode(end));
+                }
+                size--;
+                return;
+            }
+            current = next;
+            offset = end;
+        }
+    }
+
+    /**
+     * Освобождение неиспользуемого запаса массива после массовой загрузки
+     */
+    void trim() {
+        if (data.length > length) {
+            data = Arrays.copyOf(data, length);
+        }
+    }
+
+    long[] toArray() {
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        long[] ids = new long[size];
+        long current = 0;
+        int offset = 0;
+
+        for (int i = 0; i < size; i++) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            current += delta;
+            ids[i] = current;
+        }
+
+        return ids;
+    }
+
+    /**
+     * Пересечение списков. Начинаем с самого короткого, чтобы промежуточный результат был минимальным
+     */
+    static long[] intersect(List<PostingList> lists) {
+        if (lists.isEmpty()) {
+            return EMPTY;
+        }
+
+        PostingList[] sorted = lists.toArray(new PostingList[0]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.size, b.size));
+
+        long[] result = sorted[0].toArray();
+        for (int i = 1; i < sorted.length && result.length > 0; i++) {
+            result = intersect(result, sorted[i].toArray());
+        }
+
+        return result;
+    }
+
+    static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    private void append(long id) {
+        long delta = size == 0 ? id : id - last;
+        ensureCapacity(length + 10);
+
+        while ((delta & ~0x7FL) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+
+        last = id;
+        size++;
+    }
+
+    /**
+     * Замена закодированных байт [from, to) на разности deltas со сдвигом хвоста массива
+     */
+    private void splice(int from, int to, long... deltas) {
+        byte[] encoded = new byte[deltas.length * 10];
+        int encodedLength = 0;
+        for (long delta : deltas) {
+            while ((delta & ~0x7FL) != 0) {
+                encoded[encodedLength++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            encoded[encodedLength++] = (byte) delta;
+        }
+
+        int newLength = length - (to - from) + encodedLength;
+        ensureCapacity(newLength);
+        System.arraycopy(data, to, data, from + encodedLength, length - to);
+        System.arraycopy(encoded, 0, data, from, encodedLength);
+        length = newLength;
+    }
+
+    private long decode(int offset) {
+        long delta = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[offset++];
+            delta |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        return delta;
+    }
+
+    private int skip(int offset) {
+        while (data[offset] < 0) {
+            offset++;
+        }
+        return offset + 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Set;
+
+/**
+ * Слово запроса. Совпадает со словом вещи, если является его подстрокой, другой формой того же слова
+ * или (при нечётком поиске) входит в число найденных вариантов написания.
+ * Совпадение по форме весит меньше точного, совпадение с опечаткой - ещё меньше
+ */
+final class QueryTerm {
+    private static final double FORM_WEIGHT = 0.75;
+    private static final double VARIANT_WEIGHT = 0.5;
+
+    private final String text;
+    private final String stem;
+    private final Set<String> forms;
+    private final Set<String> variants;
+
+    QueryTerm(String text, String stem, Set<String> forms, Set<String> variants) {
+        this.text = text;
+        this.stem = stem;
+        this.forms = forms;
+        this.variants = variants;
+    }
+
+    String stem() {
+        return stem;
+    }
+
+    Set<String> forms() {
+        return forms;
+    }
+
+    Set<String> variants() {
+        return variants;
+    }
+
+    double weight(String token) {
+        if (token.contains(text)) {
+            return 1;
+        }
+        if (forms.contains(token)) {
+            return FORM_WEIGHT;
+        }
+        return variants.contains(token) ? VARIANT_WEIGHT : 0;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.List;
+
+/**
+ * Оценка релевантности в стиле BM25F: насыщение частоты слова и нормировка по длине поля,
+ * совпадения в названии весят больше совпадений в описании.
+ * Все найденные вещи содержат каждое слово запроса (или его вариант при нечётком поиске),
+ * поэтому idf у них практически одинаков и не учитывается
+ */
+final class RelevanceScorer {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private final double averageNameLength;
+    private final double averageDescriptionLength;
+
+    RelevanceScorer(double averageNameLength, double averageDescriptionLength) {
+        this.averageNameLength = Math.max(averageNameLength, 1);
+        this.averageDescriptionLength = Math.max(averageDescriptionLength, 1);
+    }
+
+    double score(List<QueryTerm> terms, List<String> nameTokens, List<String> descriptionTokens) {
+        double score = 0;
+
+        for (QueryTerm term : terms) {
+            double tf = NAME_WEIGHT * normalizedFrequency(term, nameTokens, averageNameLength)
+                    + DESCRIPTION_WEIGHT * normalizedFrequency(term, descriptionTokens, averageDescriptionLength);
+            score += tf * (K1 + 1) / (tf + K1);
+        }
+
+        return score;
+    }
+
+    private static double normalizedFrequency(QueryTerm term, List<String> fieldTokens, double averageLength) {
+        double frequency = 0;
+        for (String token : fieldTokens) {
+            frequency += term.weight(token);
+        }
+
+        return frequency / (1 - B + B * fieldTokens.size() / averageLength);
+    }
+}
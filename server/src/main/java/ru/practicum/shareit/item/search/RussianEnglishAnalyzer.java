@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Анализатор для русских и английских названий: регистр и буква "ё" не различаются,
+ * словом считается последовательность букв и цифр, основа выделяется стеммером по алфавиту слова
+ */
+@Component
+public class RussianEnglishAnalyzer implements TextAnalyzer {
+    @Override
+    public String normalize(String text) {
+        return text == null ? "" : text.toLowerCase().replace('ё', 'е');
+    }
+
+    @Override
+    public List<String> tokenize(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    @Override
+    public String stem(String token) {
+        if (isWritten(token, 'а', 'я')) {
+            return RussianStemmer.stem(token);
+        }
+        if (isWritten(token, 'a', 'z')) {
+            return EnglishStemmer.stem(token);
+        }
+        return token;
+    }
+
+    private static boolean isWritten(String token, char first, char last) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < first || c > last) {
+                return false;
+            }
+        }
+        return !token.isEmpty();
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Стеммер русского языка по алгоритму Портера (вариант Snowball).
+ * Окончания отбрасываются только из части слова после первой гласной,
+ * словообразовательный суффикс "ость" - только из второй области R2
+ */
+final class RussianStemmer {
+    private static final String VOWELS = "аеиоуыэюя";
+
+    // Окончания первой группы отбрасываются только после "а" или "я"
+    private static final String[] PERFECTIVE_GERUND_1 = {"вшись", "вши", "в"};
+    private static final String[] PERFECTIVE_GERUND_2 = {"ившись", "ывшись", "ивши", "ывши", "ив", "ыв"};
+    private static final String[] REFLEXIVE = {"ся", "сь"};
+    private static final String[] ADJECTIVE = {"ими", "ыми", "его", "ого", "ему", "ому", "ее", "ие", "ые", "ое",
+            "ей", "ий", "ый", "ой", "ем", "им", "ым", "ом", "их", "ых", "ую", "юю", "ая", "яя", "ою", "ею"};
+    private static final String[] PARTICIPLE_1 = {"ем", "нн", "вш", "ющ", "щ"};
+    private static final String[] PARTICIPLE_2 = {"ивш", "ывш", "ующ"};
+    private static final String[] VERB_1 = {"ете", "йте", "ешь", "нно", "ла", "на", "ли", "ем", "ло", "но", "ет",
+            "ют", "ны", "ть", "й", "л", "н"};
+    private static final String[] VERB_2 = {"ейте", "уйте", "ила", "ыла", "ена", "ите", "или", "ыли", "ило", "ыло",
+            "ено", "ует", "уют", "ены", "ить", "ыть", "ишь", "ей", "уй", "ил", "ыл", "им", "ым", "ен", "ят", "ит",
+            "ыт", "ую", "ю"};
+    private static final String[] NOUN = {"иями", "ями", "ами", "ией", "иям", "ием", "иях", "ев", "ов", "ие", "ье",
+            "еи", "ии", "ей", "ой", "ий", "ям", "ем", "ам", "ом", "ах", "ях", "ию", "ью", "ия", "ья", "а", "е", "и",
+            "й", "о", "у", "ы", "ь", "ю", "я"};
+    private static final String[] DERIVATIONAL = {"ость", "ост"};
+    private static final String[] SUPERLATIVE = {"ейше", "ейш"};
+
+    private RussianStemmer() {
+    }
+
+    static String stem(String word) {
+        int rv = word.length();
+        for (int i = 0; i < word.length(); i++) {
+            if (isVowel(word.charAt(i))) {
+                rv = i + 1;
+                break;
+            }
+        }
+        if (rv >= word.length()) {
+            return word;
+        }
+        int r2 = region(word, region(word, 0));
+
+        int end = word.length();
+        int cut = strip(word, rv, end, PERFECTIVE_GERUND_1, PERFECTIVE_GERUND_2);
+        if (cut >= 0) {
+            end = cut;
+        } else {
+            cut = strip(word, rv, end, REFLEXIVE, null);
+            if (cut >= 0) {
+                end = cut;
+            }
+
+            cut = adjectival(word, rv, end);
+            if (cut < 0) {
+                cut = strip(word, rv, end, VERB_1, VERB_2);
+            }
+            if (cut < 0) {
+                cut = strip(word, rv, end, null, NOUN);
+            }
+            if (cut >= 0) {
+                end = cut;
+            }
+        }
+
+        if (endsWith(word, rv, end, "и")) {
+            end--;
+        }
+
+        cut = strip(word, Math.max(rv, r2), end, null, DERIVATIONAL);
+        if (cut >= 0) {
+            end = cut;
+        }
+
+        cut = strip(word, rv, end, null, SUPERLATIVE);
+        if (cut >= 0) {
+            end = cut;
+        }
+        if (endsWith(word, rv, end, "нн")) {
+            end--;
+        } else if (endsWith(word, rv, end, "ь")) {
+            end--;
+        }
+
+        return word.substring(0, end);
+    }
+
+    private static int adjectival(String word, int rv, int end) {
+        int cut = strip(word, rv, end, null, ADJECTIVE);
+        if (cut < 0) {
+            return cut;
+        }
+
+        int participle = strip(word, rv, cut, PARTICIPLE_1, PARTICIPLE_2);
+        return participle >= 0 ? participle : cut;
+    }
+
+    /**
+     * Отбрасывание самого длинного подходящего окончания из двух групп.
+     * Возвращает новую длину слова или -1, если окончание не подошло
+     */
+    private static int strip(String word, int rv, int end, String[] afterAOrYa, String[] anywhere) {
+        String longest = null;
+        boolean needsAOrYa = false;
+
+        if (afterAOrYa != null) {
+            for (String ending : afterAOrYa) {
+                if (endsWith(word, rv, end, ending) && (longest == null || ending.length() > longest.length())) {
+                    longest = ending;
+                    needsAOrYa = true;
+                }
+            }
+        }
+        if (anywhere != null) {
+            for (String ending : anywhere) {
+                if (endsWith(word, rv, end, ending) && (longest == null || ending.length() > longest.length())) {
+                    longest = ending;
+                    needsAOrYa = false;
+                }
+            }
+        }
+
+        if (longest == null) {
+            return -1;
+        }
+
+        int cut = end - longest.length();
+        if (needsAOrYa && (cut <= rv || (word.charAt(cut - 1) != 'а' && word.charAt(cut - 1) != 'я'))) {
+            return -1;
+        }
+        return cut;
+    }
+
+    private static boolean endsWith(String word, int rv, int end, String ending) {
+        int start = end - ending.length();
+        return start >= rv && word.startsWith(ending, start);
+    }
+
+    /**
+     * Позиция после первой согласной, следующей за гласной, начиная с from (области R1 и R2)
+     */
+    private static int region(String word, int from) {
+        for (int i = from + 1; i < word.length(); i++) {
+            if (!isVowel(word.charAt(i)) && isVowel(word.charAt(i - 1))) {
+                return i + 1;
+            }
+        }
+        return word.length();
+    }
+
+    private static boolean isVowel(char c) {
+        return VOWELS.indexOf(c) >= 0;
+    }
+}
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * LRU-кэш id вещей, найденных поиском по индексу, с ключом из нормализованного запроса и страницы.
+ * При изменении вещи сбрасываются только запросы, слова которых пересекаются со словами вещи
+ * (подстрока, общая основа или, для нечёткого поиска, одна опечатка). Средние длины полей,
+ * от которых зависит оценка релевантности, при этом не учитываются - их изменение от одной вещи ничтожно.
+ * Счётчики попаданий, промахов и вытеснений доступны в actuator как cache.gets и cache.evictions
+ */
+@Component
+public class SearchResultCache implements MeterBinder {
+    private static final String NAME = "item-search";
+
+    private final TextAnalyzer analyzer;
+    private final int maxSize;
+    private final Map<Key, List<Long>> entries;
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public SearchResultCache(TextAnalyzer analyzer, @Value("${shareit.search.cache.size:1000}") int maxSize) {
+        this.analyzer = analyzer;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Long>> eldest) {
+                if (size() > SearchResultCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Key key(String text, long offset, int limit, SearchSort sort, boolean fuzzy) {
+        String query = analyzer.normalize(text);
+        List<String> tokens = analyzer.tokenize(query);
+        Set<String> stems = tokens.stream()
+                .map(analyzer::stem)
+                .collect(Collectors.toSet());
+
+        return new Key(query, offset, limit, sort, fuzzy, tokens, stems);
+    }
+
+    /**
+     * Метка для последующего put: результат, посчитанный до изменения вещи, в кэш уже не попадёт
+     */
+    public synchronized long stamp() {
+        return version;
+    }
+
+    public synchronized Optional<List<Long>> get(Key key) {
+        List<Long> ids = entries.get(key);
+
+        if (ids == null) {
+            misses++;
+            return Optional.empty();
+        }
+
+        hits++;
+        return Optional.of(ids);
+    }
+
+    public synchronized void put(Key key, List<Long> ids, long stamp) {
+        if (stamp == version && maxSize > 0) {
+            entries.put(key, List.copyOf(ids));
+        }
+    }
+
+    /**
+     * Сброс запросов, которые могли найти вещь с таким названием и описанием.
+     * Вызывается после изменения индекса для старой и новой версии вещи
+     */
+    public void invalidate(String name, String description) {
+        Set<String> tokens = new HashSet<>(analyzer.tokenize(analyzer.normalize(name)));
+        tokens.addAll(analyzer.tokenize(analyzer.normalize(description)));
+        Set<String> stems = tokens.stream()
+                .map(analyzer::stem)
+                .collect(Collectors.toSet());
+
+        synchronized (this) {
+            version++;
+            entries.keySet().removeIf(key -> key.mayMatch(tokens, stems));
+        }
+    }
+
+    public synchronized void clear() {
+        version++;
+        entries.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", this, SearchResultCache::hits)
+                .tags("cache", NAME, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, SearchResultCache::misses)
+                .tags("cache", NAME, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, SearchResultCache::evictions)
+                .tags("cache", NAME)
+                .register(registry);
+        Gauge.builder("cache.size", this, SearchResultCache::size)
+                .tags("cache", NAME)
+                .register(registry);
+    }
+
+    synchronized double hits() {
+        return hits;
+    }
+
+    synchronized double misses() {
+        return misses;
+    }
+
+    synchronized double evictions() {
+        return evictions;
+    }
+
+    synchronized double size() {
+        return entries.size();
+    }
+
+    public static final class Key {
+        private final String query;
+        private final long offset;
+        private final int limit;
+        private final SearchSort sort;
+        private final boolean fuzzy;
+        private final List<String> tokens;
+        private final Set<String> stems;
+
+        private Key(String query, long offset, int limit, SearchSort sort, boolean fuzzy,
+                    List<String> tokens, Set<String> stems) {
+            this.query = query;
+            this.offset = offset;
+            this.limit = limit;
+            this.sort = sort;
+            this.fuzzy = fuzzy;
+            this.tokens = tokens;
+            this.stems = stems;
+        }
+
+        /**
+         * Запрос без слов проверяется по всем вещам, поэтому сбрасывается при любом изменении
+         */
+        private boolean mayMatch(Set<String> itemTokens, Set<String> itemStems) {
+            if (tokens.isEmpty() || stems.stream().anyMatch(itemStems::contains)) {
+                return true;
+            }
+
+            for (String token : tokens) {
+                for (String itemToken : itemTokens) {
+                    if (itemToken.contains(token) || (fuzzy && FuzzyVocabulary.withinOneEdit(token, itemToken))) {
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return offset == key.offset && limit == key.limit && fuzzy == key.fuzzy
+                    && query.equals(key.query) && sort == key.sort;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, offset, limit, sort, fuzzy);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Optional;
+
+/**
+ * Порядок выдачи результатов поиска вещей
+ */
+public enum SearchSort {
+    ID,
+    RELEVANCE;
+
+    public static Optional<SearchSort> from(String sort) {
+        for (SearchSort value : SearchSort.values()) {
+            if (value.name().equalsIgnoreCase(sort)) {
+                return Optional.of(value);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Источник результатов поиска вещей (свойство shareit.search.source)
+ */
+public enum SearchSource {
+    INDEX,    // индекс в памяти приложения
+    DATABASE  // запрос к базе данных
+}
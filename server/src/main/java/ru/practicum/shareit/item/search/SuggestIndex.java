@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.*;
+
+/**
+ * Словарь слов из названий доступных вещей, упорядоченный по алфавиту.
+ * Для каждого слова хранится количество вещей, в названии которых оно встречается.
+ * Дополнения префикса - непрерывный диапазон словаря
+ */
+final class SuggestIndex {
+    private final NavigableMap<String, Integer> counts = new TreeMap<>();
+
+    void add(Collection<String> nameTokens) {
+        for (String token : nameTokens) {
+            counts.merge(token, 1, Integer::sum);
+        }
+    }
+
+    void remove(Collection<String> nameTokens) {
+        for (String token : nameTokens) {
+            counts.computeIfPresent(token, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    void clear() {
+        counts.clear();
+    }
+
+    /**
+     * Наиболее частые слова, начинающиеся с префикса. При равной частоте - по алфавиту
+     */
+    List<String> suggest(String prefix, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Comparator<Map.Entry<String, Integer>> worstFirst = Map.Entry.<String, Integer>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(worstFirst);
+
+        for (Map.Entry<String, Integer> entry : counts.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                .entrySet()) {
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (worstFirst.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        LinkedList<String> result = new LinkedList<>();
+        while (!heap.isEmpty()) {
+            result.addFirst(heap.poll().getKey());
+        }
+
+        return result;
+    }
+}
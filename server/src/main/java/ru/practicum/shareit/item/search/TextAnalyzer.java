@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.List;
+
+/**
+ * Цепочка обработки текста для поискового индекса: нормализация, разбиение на слова
+ * и приведение слова к основе. Одна и та же цепочка применяется к вещам и к запросам
+ */
+public interface TextAnalyzer {
+    /**
+     * Приведение текста к виду, в котором выполняется поиск подстроки
+     */
+    String normalize(String text);
+
+    /**
+     * Разбиение нормализованного текста на слова
+     */
+    List<String> tokenize(String normalized);
+
+    /**
+     * Основа слова. Формы одного слова должны давать одинаковую основу
+     */
+    String stem(String token);
+}
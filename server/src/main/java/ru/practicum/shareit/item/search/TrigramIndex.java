@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.*;
+
+/**
+ * Индекс триграмм: для каждой тройки подряд идущих символов хранится список вещей,
+ * в названии или описании которых она встречается. Позволяет искать произвольную подстроку
+ * длиной от трёх символов пересечением списков с последующей проверкой кандидатов
+ */
+final class TrigramIndex {
+    static final int GRAM = 3;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    void add(long id, String... fields) {
+        for (long trigram : trigrams(fields)) {
+            postings.computeIfAbsent(trigram, key -> new PostingList()).add(id);
+        }
+    }
+
+    void remove(long id, String... fields) {
+        for (long trigram : trigrams(fields)) {
+            removeTrigram(id, trigram);
+        }
+    }
+
+    /**
+     * Переиндексация изменённого текста: затрагиваются только триграммы, которые появились или пропали
+     */
+    void replace(long id, String[] oldFields, String[] newFields) {
+        Set<Long> oldTrigrams = trigrams(oldFields);
+        Set<Long> newTrigrams = trigrams(newFields);
+
+        for (long trigram : oldTrigrams) {
+            if (!newTrigrams.contains(trigram)) {
+                removeTrigram(id, trigram);
+            }
+        }
+        for (long trigram : newTrigrams) {
+            if (!oldTrigrams.contains(trigram)) {
+                postings.computeIfAbsent(trigram, key -> new PostingList()).add(id);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+    }
+
+    void trim() {
+        postings.values().forEach(PostingList::trim);
+    }
+
+    /**
+     * Отсортированные id вещей, содержащих все триграммы запроса
+     */
+    long[] candidates(String query) {
+        List<PostingList> lists = new ArrayList<>();
+
+        for (long trigram : trigrams(query)) {
+            PostingList list = postings.get(trigram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+
+        return PostingList.intersect(lists);
+    }
+
+    private void removeTrigram(long id, long trigram) {
+        PostingList list = postings.get(trigram);
+        if (list == null) {
+            return;
+        }
+
+        list.remove(id);
+        if (list.isEmpty()) {
+            postings.remove(trigram);
+        }
+    }
+
+    private static Set<Long> trigrams(String... fields) {
+        Set<Long> trigrams = new HashSet<>();
+
+        for (String field : fields) {
+            for (int i = 0; i + GRAM <= field.length(); i++) {
+                trigrams.add(((long) field.charAt(i) << 32)
+                        | ((long) field.charAt(i + 1) << 16)
+                        | field.charAt(i + 2));
+            }
+        }
+
+        return trigrams;
+    }
+}
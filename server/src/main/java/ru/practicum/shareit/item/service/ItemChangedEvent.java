@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Вещь создана, изменена или удалена. Для изменённой вещи хранятся прежние название и описание
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemChangedEvent {
+    private final Item item;
+    private final String oldName;
+    private final String oldDescription;
+    private final boolean deleted;
+
+    public static ItemChangedEvent created(Item item) {
+        return new ItemChangedEvent(item, null, null, false);
+    }
+
+    public static ItemChangedEvent updated(Item item, String oldName, String oldDescription) {
+        return new ItemChangedEvent(item, oldName, oldDescription, false);
+    }
+
+    public static ItemChangedEvent deleted(Item item) {
+        return new ItemChangedEvent(item, null, null, true);
+    }
+
+    public boolean isUpdated() {
+        return !deleted && (oldName != null || oldDescription != null);
+    }
+}
@@ -3,8 +3,10 @@ package ru.practicum.shareit.item.service;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.SearchSort;
 
 import java.util.List;
+import java.util.Map;
 
 public interface ItemService {
     Item createItem(Item item);
@@ -17,6 +19,10 @@ public interface ItemService {
 
     List<Item> getAllItems(Pageable pageable);
 
+    List<Item> searchItems(String text, Pageable pageable, SearchSort sort, boolean fuzzy);
+
+    List<String> suggestNames(String prefix, int size);
+
     Item updateItem(Item item);
 
     String deleteItem(Long itemId);
@@ -24,4 +30,6 @@ public interface ItemService {
     Comment createComment(Comment comment);
 
     List<Comment> getCommentsByItem(Long id);
+
+    Map<Long, List<Comment>> getCommentsByItems(List<Long> ids);
 }
@@ -1,29 +1,46 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NoDataFoundException;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchResultCache;
+import ru.practicum.shareit.item.search.SearchSort;
+import ru.practicum.shareit.item.search.SearchSource;
 import ru.practicum.shareit.item.storage.CommentStorage;
 import ru.practicum.shareit.item.storage.ItemStorage;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
     private final ItemStorage itemStorage;
     private final CommentStorage commentStorage;
+    private final ItemSearchIndex searchIndex;
+    private final SearchResultCache searchCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${shareit.search.source:index}")
+    private SearchSource searchSource = SearchSource.INDEX;
+    @Value("${shareit.search.full-text:false}")
+    private boolean fullTextSearch;
 
     @Override
     @Transactional
     public Item createItem(Item item) {
-        return itemStorage.save(item);
+        Item saved = itemStorage.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.created(saved));
+
+        return saved;
     }
 
     @Override
@@ -56,10 +73,65 @@ public class ItemServiceImpl implements ItemService {
         return itemStorage.findAll(pageable).getContent();
     }
 
+    @Override
+    @Transactional
+    public List<Item> searchItems(String text, Pageable pageable, SearchSort sort, boolean fuzzy) {
+        if (searchSource == SearchSource.DATABASE) {
+            return searchInDatabase(text, pageable, sort);
+        }
+
+        SearchResultCache.Key key = searchCache.key(text, pageable.getOffset(), pageable.getPageSize(), sort, fuzzy);
+        List<Long> ids = searchCache.get(key).orElseGet(() -> {
+            long stamp = searchCache.stamp();
+            List<Long> found = searchIndex.search(text, pageable.getOffset(), pageable.getPageSize(), sort, fuzzy);
+            searchCache.put(key, found, stamp);
+            return found;
+        });
+
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Порядок выдачи задаёт индекс, поэтому восстанавливаем его после выборки по id
+        Map<Long, Item> items = itemStorage.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> suggestNames(String prefix, int size) {
+        return searchIndex.suggest(prefix, size);
+    }
+
+    /**
+     * Поиск силами базы: на PostgreSQL - полнотекстовый по GIN-индексу, иначе - LIKE.
+     * Для LIKE оценки релевантности нет, результаты всегда идут по id. Нечёткий поиск
+     * доступен только в индексе
+     */
+    private List<Item> searchInDatabase(String text, Pageable pageable, SearchSort sort) {
+        if (fullTextSearch) {
+            return sort == SearchSort.RELEVANCE
+                    ? itemStorage.searchFullTextRanked(text, pageable)
+                    : itemStorage.searchFullText(text, pageable);
+        }
+
+        String pattern = text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+
+        return itemStorage.search(pattern, pageable);
+    }
+
     @Override
     @Transactional
     public Item updateItem(Item item) {
         Item oldItem = getItem(item.getId());
+        String oldName = oldItem.getName();
+        String oldDescription = oldItem.getDescription();
 
         if (item.getName() != null) {
             oldItem.setName(item.getName());
@@ -71,7 +143,10 @@ public class ItemServiceImpl implements ItemService {
             oldItem.setAvailable(item.getAvailable());
         }
 
-        return itemStorage.save(oldItem);
+        Item saved = itemStorage.save(oldItem);
+        eventPublisher.publishEvent(ItemChangedEvent.updated(saved, oldName, oldDescription));
+
+        return saved;
     }
 
     @Override
@@ -79,6 +154,7 @@ public class ItemServiceImpl implements ItemService {
     public String deleteItem(Long itemId) {
         Item item = getItem(itemId);
         itemStorage.delete(item);
+        eventPublisher.publishEvent(ItemChangedEvent.deleted(item));
 
         return String.format("Удалена позиция с id = %d", itemId);
     }
@@ -94,4 +170,15 @@ public class ItemServiceImpl implements ItemService {
     public List<Comment> getCommentsByItem(Long id) {
         return commentStorage.findAllByItemId(id);
     }
+
+    @Override
+    @Transactional
+    public Map<Long, List<Comment>> getCommentsByItems(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        return commentStorage.findAllByItemIdIn(ids).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+    }
 }
\ No newline at end of file
@@ -1,11 +1,18 @@
 package ru.practicum.shareit.item.storage;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentStorage extends JpaRepository<Comment, Long> {
     List<Comment> findAllByItemId(Long itemId);
 
+    /**
+     * Отзывы к нескольким вещам одним запросом вместе с вещью и автором
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.item JOIN FETCH c.author WHERE c.item.id IN ?1 ORDER BY c.id")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
 }
@@ -3,6 +3,8 @@ package ru.practicum.shareit.item.storage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
@@ -14,4 +16,26 @@ public interface ItemStorage extends JpaRepository<Item, Long> {
 
     Page<Item> findAll(Pageable pageable);
 
+    // Поиск подстроки на стороне базы, подходит для любой СУБД
+    @Query("select i from Item i " +
+            "where i.available = true " +
+            "and (lower(i.name) like concat('%', lower(:text), '%') escape '\\' " +
+            "or lower(i.description) like concat('%', lower(:text), '%') escape '\\') " +
+            "order by i.id")
+    List<Item> search(@Param("text") String text, Pageable pageable);
+
+    // Полнотекстовый поиск PostgreSQL по столбцу search_vector (см. schema-postgresql.sql)
+    @Query(value = "SELECT * FROM items " +
+            "WHERE available = true " +
+            "AND search_vector @@ plainto_tsquery('russian', :text) " +
+            "ORDER BY item_id", nativeQuery = true)
+    List<Item> searchFullText(@Param("text") String text, Pageable pageable);
+
+    // То же, но по убыванию ts_rank: совпадения в названии (вес A) выше совпадений в описании (вес B)
+    @Query(value = "SELECT * FROM items " +
+            "WHERE available = true " +
+            "AND search_vector @@ plainto_tsquery('russian', :text) " +
+            "ORDER BY ts_rank(search_vector, plainto_tsquery('russian', :text)) DESC, item_id", nativeQuery = true)
+    List<Item> searchFullTextRanked(@Param("text") String text, Pageable pageable);
+
 }
\ No newline at end of file
@@ -1,15 +1,30 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.gateway.GatewayApi;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.model.User;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -18,7 +33,11 @@ import java.util.List;
 @RequestMapping(path = "/users")
 @Validated
 public class UserController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String NDJSON = "application/x-ndjson";
+
     private final GatewayApi gatewayApi;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public UserDto createUser(@RequestBody @Valid User user) {
@@ -28,6 +47,35 @@ public class UserController {
         return gatewayApi.createUser(user);
     }
 
+    /**
+     * Импорт пакета пользователей массивом JSON. Результат по каждой записи в порядке запроса
+     */
+    @PostMapping("/bulk")
+    public List<UserImportResultDto> importUsers(@RequestBody List<UserDto> users) {
+        log.info("Запрос на импорт {} пользователей.", users.size());
+        return gatewayApi.importUsers(users);
+    }
+
+    /**
+     * Импорт пакета пользователей в формате NDJSON. Записи сверх допустимого размера пакета
+     * не читаются: одной лишней достаточно, чтобы отклонить пакет
+     */
+    @PostMapping(value = "/bulk", consumes = NDJSON)
+    public List<UserImportResultDto> importUsersNdjson(InputStream body) throws IOException {
+        List<UserDto> users = new ArrayList<>();
+
+        try (MappingIterator<UserDto> lines = objectMapper.readerFor(UserDto.class).readValues(body)) {
+            while (users.size() <= GatewayApi.MAX_IMPORT && lines.hasNextValue()) {
+                users.add(lines.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException(String.format("Неверная строка NDJSON: %s", e.getOriginalMessage()));
+        }
+
+        log.info("Запрос на импорт {} пользователей.", users.size());
+        return gatewayApi.importUsers(users);
+    }
+
     @GetMapping("/{userId}")
     public UserDto getUser(@PathVariable Long userId) {
         log.info("Запрос на получение пользователя по id.");
@@ -40,6 +88,45 @@ public class UserController {
         return gatewayApi.getAllUsers();
     }
 
+    /**
+     * Постраничная выдача по ключу: after - курсор из заголовка X-Next-Cursor предыдущего ответа,
+     * пустой - первая страница. Курсор отдаётся, только если страница заполнена полностью
+     */
+    @GetMapping(params = "after")
+    public ResponseEntity<List<UserDto>> getUsersAfter(@RequestParam String after,
+                                                       @RequestParam(defaultValue = "100") Integer size) {
+        log.info("Запрос на получение страницы пользователей после '{}'", after);
+        List<UserDto> users = gatewayApi.getUsersAfter(after, size);
+
+        if (users.size() < size) {
+            return ResponseEntity.ok(users);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(users.get(users.size() - 1).getId()))
+                .body(users);
+    }
+
+    /**
+     * Выгрузка всех пользователей в формате NDJSON (по объекту JSON в строке). Строки пишутся в ответ
+     * по мере чтения из курсора базы, поэтому расход памяти не зависит от числа пользователей
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Запрос на выгрузку всех пользователей.");
+
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(UserDto.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                gatewayApi.forEachUser(user -> writeLine(writer, generator, user));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
     @PatchMapping("/{userId}")
     public UserDto updateUser(@PathVariable Long userId, @RequestBody User user) {
         log.info("Запрос на обновление пользователя.");
@@ -53,4 +140,12 @@ public class UserController {
         return gatewayApi.deleteUser(userId);
     }
 
+    private static void writeLine(ObjectWriter writer, JsonGenerator generator, UserDto user) {
+        try {
+            writer.writeValue(generator, user);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
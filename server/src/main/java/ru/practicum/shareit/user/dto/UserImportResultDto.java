@@ -0,0 +1,19 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.*;
+
+/**
+ * Итог импорта одного пользователя из пакета: номер записи в запросе, HTTP-статус, который вернул бы
+ * одиночный запрос, и созданный пользователь либо текст ошибки
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class UserImportResultDto {
+    private int index;
+    private int status;
+    private UserDto user;
+    private String error;
+}
@@ -0,0 +1,203 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * LRU-кэш пользователей с ограниченным сроком жизни записей и множество id всех пользователей.
+ * Пользователи отдаются копиями, чтобы изменения у вызывающего не попадали в кэш.
+ * Множество id хранится битами (id выдаются подряд, поэтому на миллион пользователей около 125 КБ),
+ * строится при старте и обновляется при создании и удалении пользователей в этом процессе.
+ * Счётчики попаданий, промахов и вытеснений доступны в actuator как cache.gets и cache.evictions
+ */
+@Slf4j
+@Component
+public class UserCache implements MeterBinder {
+    private static final String NAME = "user";
+
+    private final UserStorage userStorage;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<Long, Entry> entries;
+    private BitSet ids = new BitSet();
+    private BitSet removedWhileLoading;
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    @Autowired
+    public UserCache(UserStorage userStorage, @Value("${shareit.user.cache.size:10000}") int maxSize,
+                     @Value("${shareit.user.cache.ttl:300000}") long ttlMillis) {
+        this(userStorage, maxSize, ttlMillis, System::nanoTime);
+    }
+
+    UserCache(UserStorage userStorage, int maxSize, long ttlMillis, LongSupplier clock) {
+        this.userStorage = userStorage;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > UserCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Построение множества id при старте. Пользователи, удалённые во время чтения, в него не попадают
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadIds() {
+        synchronized (this) {
+            removedWhileLoading = new BitSet();
+        }
+
+        BitSet loaded = new BitSet();
+        userStorage.forEachId(id -> {
+            if (fitsBitSet(id)) {
+                loaded.set((int) id);
+            }
+        });
+
+        synchronized (this) {
+            loaded.andNot(removedWhileLoading);
+            loaded.or(ids);
+            ids = loaded;
+            removedWhileLoading = null;
+        }
+        log.info("Множество id пользователей построено, пользователей: {}", loaded.cardinality());
+    }
+
+    /**
+     * Метка для последующего put: пользователь, прочитанный до изменения, в кэш уже не попадёт
+     */
+    public synchronized long stamp() {
+        return version;
+    }
+
+    public synchronized Optional<User> get(Long id) {
+        Entry entry = entries.get(id);
+
+        if (entry == null || clock.getAsLong() - entry.loadedAt >= ttlNanos) {
+            if (entry != null) {
+                entries.remove(id);
+            }
+            misses++;
+            return Optional.empty();
+        }
+
+        hits++;
+        return Optional.of(copy(entry.user));
+    }
+
+    public synchronized void put(User user, long stamp) {
+        if (stamp == version && maxSize > 0) {
+            entries.put(user.getId(), new Entry(copy(user), clock.getAsLong()));
+        }
+    }
+
+    /**
+     * Известно ли, что пользователь с таким id существует. Отсутствие id в множестве не означает,
+     * что пользователя нет: его могли создать в обход этого процесса, поэтому такие id проверяются по базе
+     */
+    public synchronized boolean contains(Long id) {
+        return fitsBitSet(id) && ids.get(id.intValue());
+    }
+
+    public synchronized void added(Long id) {
+        if (fitsBitSet(id)) {
+            ids.set(id.intValue());
+        }
+    }
+
+    public synchronized void invalidate(Long id) {
+        version++;
+        entries.remove(id);
+    }
+
+    public synchronized void removed(Long id) {
+        invalidate(id);
+        if (fitsBitSet(id)) {
+            ids.clear(id.intValue());
+            if (removedWhileLoading != null) {
+                removedWhileLoading.set(id.intValue());
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", this, UserCache::hits)
+                .tags("cache", NAME, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, UserCache::misses)
+                .tags("cache", NAME, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, UserCache::evictions)
+                .tags("cache", NAME)
+                .register(registry);
+        Gauge.builder("cache.size", this, UserCache::size)
+                .tags("cache", NAME)
+                .register(registry);
+    }
+
+    synchronized double hits() {
+        return hits;
+    }
+
+    synchronized double misses() {
+        return misses;
+    }
+
+    synchronized double evictions() {
+        return evictions;
+    }
+
+    synchronized double size() {
+        return entries.size();
+    }
+
+    private static boolean fitsBitSet(long id) {
+        return id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail());
+    }
+
+    private static final class Entry {
+        private final User user;
+        private final long loadedAt;
+
+        private Entry(User user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
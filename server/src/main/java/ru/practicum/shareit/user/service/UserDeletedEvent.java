@@ -0,0 +1,14 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Пользователь удалён. Его вещи и бронирования, а также бронирования его вещей база удаляет каскадом,
+ * отдельных событий о них нет
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserDeletedEvent {
+    private final Long userId;
+}
@@ -2,15 +2,28 @@ package ru.practicum.shareit.user.service;
 
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserService {
     User createUser(User user);
 
+    List<User> importUsers(List<User> users);
+
+    Set<String> getTakenEmails(Collection<String> emails);
+
     User getUser(Long id);
 
+    boolean existsById(Long id);
+
     List<User> getAllUsers();
 
+    List<User> getUsersAfter(Long after, Integer size);
+
+    void forEachUser(Consumer<User> action);
+
     User updateUser(Long id, User newUser);
 
     User deleteUser(Long id);
@@ -1,21 +1,31 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.AlreadyExistException;
 import ru.practicum.shareit.exceptions.NoDataFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
 import ru.practicum.shareit.utils.Validator;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserStorage userStorage;
     private final Validator validator;
+    private final UserCache userCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public User createUser(User user) {
@@ -25,30 +35,95 @@ public class UserServiceImpl implements UserService {
         } catch (RuntimeException exception) {
             throw new AlreadyExistException(String.format("Адрес электронной почты '%s' занят!", user.getEmail()));
         }
+        userCache.added(userReturn.getId());
 
         return userReturn;
     }
 
+    /**
+     * Вставка пакета в одной транзакции: если адрес заняли между проверкой и вставкой,
+     * не создаётся ни один пользователь пакета
+     */
+    @Override
+    @Transactional
+    public List<User> importUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+
+        try {
+            userStorage.insertAll(users);
+        } catch (DataIntegrityViolationException exception) {
+            throw new AlreadyExistException("Адрес электронной почты из пакета занят другим запросом!");
+        }
+        users.forEach(user -> userCache.added(user.getId()));
+
+        return users;
+    }
+
+    @Override
+    public Set<String> getTakenEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return userStorage.findTakenEmails(emails);
+    }
+
     @Override
     public User getUser(Long id) {
+        Optional<User> cached = userCache.get(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        long stamp = userCache.stamp();
         Optional<User> userO = userStorage.findById(id);
 
         if (userO.isEmpty()) {
             throw new NoDataFoundException(String.format("Пользователь с id=%d не найден", id));
         }
+        userCache.put(userO.get(), stamp);
         return userO.get();
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        if (userCache.contains(id)) {
+            return true;
+        }
+
+        // Id нет в множестве: оно ещё не построено или пользователь создан в обход этого процесса
+        boolean exists = userStorage.existsById(id);
+        if (exists) {
+            userCache.added(id);
+        }
+        return exists;
+    }
+
     @Override
     public List<User> getAllUsers() {
         return userStorage.findAll();
     }
 
+    @Override
+    public List<User> getUsersAfter(Long after, Integer size) {
+        return userStorage.findAllByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<User> action) {
+        userStorage.forEachUser(action);
+    }
+
     @Override
     public User updateUser(Long id, User newUser) {
         User oldUser = getUser(id);
         newUser.setId(id);
-        validator.checkEmailOnExistAndValid(newUser, userStorage.findAll());
+        // Прежний адрес уже принадлежит этому пользователю, проверять его по базе не нужно
+        if (!Objects.equals(newUser.getEmail(), oldUser.getEmail())) {
+            validator.checkEmailOnExistAndValid(newUser);
+        }
 
         if (newUser.getName() == null || newUser.getName().isBlank()) {
             newUser.setName(oldUser.getName());
@@ -57,7 +132,9 @@ public class UserServiceImpl implements UserService {
             newUser.setEmail(oldUser.getEmail());
         }
 
-        return userStorage.save(newUser);
+        User updated = userStorage.save(newUser);
+        userCache.invalidate(id);
+        return updated;
     }
 
     @Override
@@ -65,6 +142,8 @@ public class UserServiceImpl implements UserService {
         User user = getUser(id);
 
         userStorage.delete(user);
+        userCache.removed(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
         return user;
     }
 
@@ -1,8 +1,29 @@
 package ru.practicum.shareit.user.storage;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.user.model.User;
 
-public interface UserStorage extends JpaRepository<User, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
+public interface UserStorage extends JpaRepository<User, Long>, UserStorageCustom {
+    /**
+     * Страница пользователей с id больше заданного: поиск по первичному ключу без смещения
+     */
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Занят ли адрес другим пользователем: поиск идёт по уникальному индексу UQ_USER_EMAIL
+     */
+    boolean existsByEmailAndIdNot(String email, Long id);
+
+    /**
+     * Занятые адреса из переданных: один запрос по уникальному индексу UQ_USER_EMAIL на весь пакет
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findTakenEmails(@Param("emails") Collection<String> emails);
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.user.storage;
+
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public interface UserStorageCustom {
+    /**
+     * Обход всех пользователей по возрастанию id через курсор JDBC: строки читаются порциями
+     * и передаются обработчику по одной, сущности в контекст постоянства не попадают.
+     * Курсор PostgreSQL работает только внутри транзакции
+     */
+    void forEachUser(Consumer<User> action);
+
+    /**
+     * Обход id всех пользователей по возрастанию тем же курсором, без чтения остальных столбцов
+     */
+    void forEachId(LongConsumer action);
+
+    /**
+     * Вставка пользователей одним пакетом JDBC с заполнением выданных базой id. Пакетная вставка
+     * через Hibernate невозможна: при GenerationType.IDENTITY каждая сущность вставляется отдельным запросом
+     */
+    void insertAll(List<User> users);
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.user.storage;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.user.model.User;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+class UserStorageCustomImpl implements UserStorageCustom {
+    private static final int FETCH_SIZE = 1_000;
+    private static final String INSERT_USER = "INSERT INTO users (name, email) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserStorageCustomImpl(DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        jdbcTemplate.query("SELECT user_id, name, email FROM users ORDER BY user_id", resultSet -> {
+            action.accept(new User(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3)));
+        });
+    }
+
+    @Override
+    public void forEachId(LongConsumer action) {
+        jdbcTemplate.query("SELECT user_id FROM users ORDER BY user_id", resultSet -> {
+            action.accept(resultSet.getLong(1));
+        });
+    }
+
+    @Override
+    public void insertAll(List<User> users) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_USER, new String[]{"user_id"})) {
+                for (User user : users) {
+                    statement.setString(1, user.getName());
+                    statement.setString(2, user.getEmail());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (User user : users) {
+                        keys.next();
+                        user.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
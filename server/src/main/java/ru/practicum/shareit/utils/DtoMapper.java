@@ -118,7 +118,8 @@ public class DtoMapper {
                 bookingDto.getEnd(),
                 null,
                 null,
-                bookingDto.getStatus());
+                bookingDto.getStatus(),
+                null);
     }
 
 }
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.utils;
+
+/**
+ * Проверка адреса электронной почты за один проход без регулярного выражения и без выделения памяти.
+ * Принимает тот же язык, что и \w+([.-]?\w+)*@\w+([.-]?\w+)*\.\w{2,4}: части до и после @ состоят
+ * из символов слова, разделённых одиночными '.' или '-', а после последней точки домена идут 2-4 символа слова.
+ * Время проверки линейно по длине адреса при любом вводе, в отличие от вложенных квантификаторов
+ */
+public final class EmailValidator {
+    private static final int MIN_TOP_DOMAIN = 2;
+    private static final int MAX_TOP_DOMAIN = 4;
+
+    private EmailValidator() {
+    }
+
+    public static boolean isValid(String email) {
+        int at = email.indexOf('@');
+        int dot = email.lastIndexOf('.');
+        int topDomain = email.length() - dot - 1;
+
+        // Символ '@' не входит в символы слова, поэтому второй '@' отсеют проверки частей
+        if (at < 0 || dot < at || topDomain < MIN_TOP_DOMAIN || topDomain > MAX_TOP_DOMAIN) {
+            return false;
+        }
+        for (int i = dot + 1; i < email.length(); i++) {
+            if (!isWordChar(email.charAt(i))) {
+                return false;
+            }
+        }
+
+        return isWords(email, 0, at) && isWords(email, at + 1, dot);
+    }
+
+    /**
+     * Непустой отрезок [from, to) из символов слова, разделённых одиночными '.' или '-',
+     * который начинается и заканчивается символом слова
+     */
+    private static boolean isWords(String email, int from, int to) {
+        boolean afterWordChar = false;
+
+        for (int i = from; i < to; i++) {
+            char c = email.charAt(i);
+            if (isWordChar(c)) {
+                afterWordChar = true;
+            } else if ((c == '.' || c == '-') && afterWordChar) {
+                afterWordChar = false;
+            } else {
+                return false;
+            }
+        }
+        return afterWordChar;
+    }
+
+    // Как \w в регулярных выражениях Java без UNICODE_CHARACTER_CLASS
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
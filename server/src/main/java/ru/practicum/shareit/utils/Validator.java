@@ -2,22 +2,23 @@ package ru.practicum.shareit.utils;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.exceptions.AlreadyExistException;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NoDataFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
 public class Validator {
+    private final BookingIntervalIndex intervalIndex;
+    private final UserStorage userStorage;
 
     public void checkOwner(Item item, User user) {
         if (!item.getOwner().getId().equals(user.getId())) {
@@ -27,23 +28,20 @@ public class Validator {
     }
 
     /**
-     * Проверка при создании нового пользователя и обновлении на уникальность электронного адреса
+     * Проверка при обновлении пользователя на уникальность электронного адреса: один запрос
+     * по уникальному индексу UQ_USER_EMAIL вместо просмотра всех пользователей
      */
-    public void checkEmailOnExistAndValid(User user, List<User> users) {
+    public void checkEmailOnExistAndValid(User user) {
         String email = user.getEmail();
 
-        if (email != null) {
-            checkEmailOnValid(email); // Проверка "валидности" email
+        if (email == null) {
+            return;
         }
 
-        Long id = user.getId();
-
-        Optional<User> userO = users.stream()
-                .filter(u -> u.getEmail().equals(email))
-                .findFirst();
+        checkEmailOnValid(email); // Проверка "валидности" email
 
         // Если user с таким email есть в базе и это не он сам
-        if (userO.isPresent() && !userO.get().getId().equals(id)) {
+        if (userStorage.existsByEmailAndIdNot(email, user.getId())) {
             throw new AlreadyExistException(String.format("Адрес электронной почты '%s' занят!", email));
         }
     }
@@ -52,10 +50,7 @@ public class Validator {
      * Проверка адреса электронной почты на "валидность"
      */
     private void checkEmailOnValid(String email) {
-        Pattern pattern = Pattern.compile("\\w+([.-]?\\w+)*@\\w+([.-]?\\w+)*\\.\\w{2,4}");
-        Matcher matcher = pattern.matcher(email);
-
-        if (!matcher.matches() || email.isBlank()) {
+        if (!EmailValidator.isValid(email)) {
             throw new ValidationException("При обновлении указан неверный адрес электронной почты!");
         }
     }
@@ -72,6 +67,24 @@ public class Validator {
         checkOwnerAndBooker(booking);
         // проверка времени бронирования на корректность
         checkTimeOfBooking(booking);
+        // проверка, что вещь не забронирована на это время
+        checkOverlap(booking);
+    }
+
+    /**
+     * Проверка перед одобрением бронирования, которого нет в индексе интервалов (например, отклонённого):
+     * его время за это время могли занять другие брони. Вызывается под блокировкой вещи
+     */
+    public void checkOverlapOnApprove(Booking booking) {
+        if (intervalIndex.isBooked(booking.getItem().getId(), booking.getStart(), booking.getEnd(), booking.getId())) {
+            throw new ConflictException("Вещь уже забронирована на это время");
+        }
+    }
+
+    private void checkOverlap(Booking booking) {
+        if (intervalIndex.isBooked(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+            throw new ValidationException("Вещь уже забронирована на это время");
+        }
     }
 
     private void checkOwnerAndBooker(Booking booking) {
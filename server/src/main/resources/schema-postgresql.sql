@@ -0,0 +1,5 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector
+  GENERATED ALWAYS AS (setweight(to_tsvector('russian', name), 'A')
+    || setweight(to_tsvector('russian', description), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS IX_ITEM_SEARCH_VECTOR ON items USING GIN (search_vector) WHERE available = true;
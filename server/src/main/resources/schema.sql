@@ -1,4 +1,4 @@
-DROP TABLE IF EXISTS users, item_requests, items, bookings, comments;
+DROP TABLE IF EXISTS users, item_requests, items, bookings, item_booking_pointers, comments;
 
 CREATE TABLE IF NOT EXISTS users (
   user_id 	BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -32,6 +32,9 @@ CREATE TABLE IF NOT EXISTS items (
   CONSTRAINT FK_ITEM_REQUEST_ID FOREIGN KEY (request_id) REFERENCES item_requests (item_request_id) ON DELETE CASCADE
 );
 
+-- Вещи владельца: через него выбираются бронирования для владельца
+CREATE INDEX IF NOT EXISTS IX_ITEM_OWNER ON items (owner_id, item_id);
+
 CREATE TABLE IF NOT EXISTS bookings (
   booking_id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   start_booking TIMESTAMP,
@@ -39,12 +42,36 @@ CREATE TABLE IF NOT EXISTS bookings (
   item_id       BIGINT NOT NULL,
   booker_id     BIGINT NOT NULL,
   status        VARCHAR(50),
+  version       BIGINT DEFAULT 0 NOT NULL,
   
   CONSTRAINT PK_BOOKING PRIMARY KEY (booking_id),
   CONSTRAINT FK_BOOKING_ITEM_ID FOREIGN KEY (item_id) REFERENCES items (item_id) ON DELETE CASCADE,
   CONSTRAINT FK_BOOKING_USER_ID FOREIGN KEY (booker_id ) REFERENCES users (user_id) ON DELETE CASCADE
 );
 
+-- Списки бронирований бронирующего и владельца вещей (в том числе постранично по ключу start_booking, booking_id),
+-- последнее и следующее бронирование вещи
+CREATE INDEX IF NOT EXISTS IX_BOOKING_BOOKER_START ON bookings (booker_id, start_booking DESC, booking_id DESC);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ITEM_START ON bookings (item_id, start_booking DESC, booking_id DESC);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ITEM_STATUS_START ON bookings (item_id, status, start_booking);
+CREATE INDEX IF NOT EXISTS IX_BOOKING_ITEM_STATUS_END ON bookings (item_id, status, end_booking);
+
+-- Последнее и ближайшее одобренные бронирования вещи, пересчитываются при смене статуса и по расписанию.
+-- При удалении бронирования вместе с арендатором ссылка обнуляется до следующего пересчёта вещи
+CREATE TABLE IF NOT EXISTS item_booking_pointers (
+  item_id         BIGINT NOT NULL,
+  last_booking_id BIGINT,
+  next_booking_id BIGINT,
+  valid_until     TIMESTAMP,
+
+  CONSTRAINT PK_ITEM_BOOKING_POINTER PRIMARY KEY (item_id),
+  CONSTRAINT FK_POINTER_ITEM_ID FOREIGN KEY (item_id) REFERENCES items (item_id) ON DELETE CASCADE,
+  CONSTRAINT FK_POINTER_LAST_ID FOREIGN KEY (last_booking_id) REFERENCES bookings (booking_id) ON DELETE SET NULL,
+  CONSTRAINT FK_POINTER_NEXT_ID FOREIGN KEY (next_booking_id) REFERENCES bookings (booking_id) ON DELETE SET NULL
+);
+
+CREATE INDEX IF NOT EXISTS IX_POINTER_VALID_UNTIL ON item_booking_pointers (valid_until);
+
 CREATE TABLE IF NOT EXISTS comments (
   comment_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   text       VARCHAR(1024) NOT NULL,
@@ -0,0 +1,194 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Одновременные запросы на бронирование двух вещей с пересекающимися периодами: сохраниться должны
+ * только непересекающиеся брони, остальные - получить отказ. Одновременные одобрения и отклонения
+ * одной брони не должны терять изменения, а повторное одобрение отклонённой брони не должно
+ * создавать пересечение с занявшей её время новой бронью
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Sql(value = {"/schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/data_test.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class BookingConcurrencyTest {
+    private static final int REQUESTS = 1_000;
+    private static final int THREADS = 32;
+    private static final long[] ITEMS = {2L, 3L};
+    private static final long[] BOOKERS = {1L, 3L};
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingIntervalIndex intervalIndex;
+
+    @BeforeEach
+    void setUp() {
+        // Схема пересоздана после старта контекста, индекс строится заново по новым данным
+        intervalIndex.rebuild();
+    }
+
+    @Test
+    void createBooking_whenConcurrentOverlapping_thenNoDoubleBookings() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        Random random = new Random(18);
+        List<String> bodies = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            LocalDateTime start = base.plusHours(random.nextInt(10));
+            BookingDto request = new BookingDto();
+            request.setItemId(ITEMS[i % ITEMS.length]);
+            request.setStart(start);
+            request.setEnd(start.plusHours(1 + random.nextInt(3)));
+            bodies.add(mapper.writeValueAsString(request));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            String body = bodies.get(i);
+            long bookerId = BOOKERS[(i / ITEMS.length) % BOOKERS.length];
+            results.add(executor.submit(() -> {
+                ready.await();
+                return mockMvc.perform(post("/bookings")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header("X-Sharer-User-Id", bookerId)
+                                .content(body))
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+        ready.countDown();
+
+        int created = 0;
+        for (Future<Integer> result : results) {
+            int status = result.get();
+            assertTrue(status == HttpStatus.OK.value() || status == HttpStatus.BAD_REQUEST.value(),
+                    "Статус ответа " + status);
+            created += status == HttpStatus.OK.value() ? 1 : 0;
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(created >= ITEMS.length);
+        int saved = 0;
+        for (long itemId : ITEMS) {
+            List<Map<String, Object>> bookings = jdbcTemplate.queryForList("SELECT booking_id, start_booking, "
+                    + "end_booking FROM bookings WHERE item_id = ? AND start_booking >= ? ORDER BY start_booking",
+                    itemId, base);
+            for (int i = 1; i < bookings.size(); i++) {
+                Timestamp previousEnd = (Timestamp) bookings.get(i - 1).get("END_BOOKING");
+                Timestamp currentStart = (Timestamp) bookings.get(i).get("START_BOOKING");
+                assertFalse(currentStart.before(previousEnd), "Пересекаются брони "
+                        + bookings.get(i - 1).get("BOOKING_ID") + " и " + bookings.get(i).get("BOOKING_ID"));
+            }
+            saved += bookings.size();
+        }
+        assertEquals(created, saved);
+    }
+
+    @Test
+    void setStatus_whenConcurrentApproveAndReject_thenEveryChangeCountedOnce() throws Exception {
+        // Бронирование 3 вещи 1 отклонено, владелец вещи может его одобрить
+        int requests = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            String approved = String.valueOf(i % 2 == 0);
+            results.add(executor.submit(() -> {
+                ready.await();
+                return mockMvc.perform(patch("/bookings/3")
+                                .header("X-Sharer-User-Id", 1L)
+                                .param("approved", approved))
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+        ready.countDown();
+
+        int changed = 0;
+        for (Future<Integer> result : results) {
+            int status = result.get();
+            assertTrue(status == HttpStatus.OK.value() || status == HttpStatus.CONFLICT.value()
+                    || status == HttpStatus.BAD_REQUEST.value(), "Статус ответа " + status);
+            changed += status == HttpStatus.OK.value() ? 1 : 0;
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Map<String, Object> booking = jdbcTemplate.queryForMap("SELECT status, version FROM bookings "
+                + "WHERE booking_id = 3");
+        assertTrue(changed >= 1);
+        assertEquals((long) changed, ((Number) booking.get("VERSION")).longValue());
+    }
+
+    @Test
+    void setStatus_whenRejectedSlotTakenByOtherBooking_thenReapproveConflict() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS);
+        long first = createBooking(2L, 1L, start, start.plusHours(2));
+
+        mockMvc.perform(patch("/bookings/" + first)
+                        .header("X-Sharer-User-Id", 2L)
+                        .param("approved", "false"))
+                .andExpect(status().isOk());
+        createBooking(2L, 3L, start.plusHours(1), start.plusHours(3));
+
+        mockMvc.perform(patch("/bookings/" + first)
+                        .header("X-Sharer-User-Id", 2L)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict());
+        assertEquals("REJECTED", jdbcTemplate.queryForObject("SELECT status FROM bookings WHERE booking_id = ?",
+                String.class, first));
+    }
+
+    private long createBooking(long itemId, long bookerId, LocalDateTime start, LocalDateTime end) throws Exception {
+        BookingDto request = new BookingDto();
+        request.setItemId(itemId);
+        request.setStart(start);
+        request.setEnd(end);
+
+        String response = mockMvc.perform(post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", bookerId)
+                        .content(mapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readValue(response, BookingDto.class).getId();
+    }
+}
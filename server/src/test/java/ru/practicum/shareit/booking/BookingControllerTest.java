@@ -12,12 +12,19 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.gateway.GatewayApi;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -108,6 +115,25 @@ class BookingControllerTest {
         verify(gatewayApi, never()).setStatus(anyLong(), anyLong(), anyBoolean());
     }
 
+    @Test
+    @SneakyThrows
+    void setStatuses_whenInvoke_thenResultPerBooking() {
+        List<BookingStatusChangeDto> changes = List.of(new BookingStatusChangeDto(1L, true),
+                new BookingStatusChangeDto(2L, false));
+        when(gatewayApi.setStatuses(changes, 1L)).thenReturn(List.of(
+                new BookingStatusResultDto(1L, 200, new BookingDto(), null),
+                new BookingStatusResultDto(2L, 409, null, "Статус бронирования уже изменён другим запросом")));
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[1].bookingId").value(2))
+                .andExpect(jsonPath("$[1].status").value(409));
+    }
+
     @Test
     @SneakyThrows
     void getAllBookingByUser_whenInvoke_thenStatusOk() {
@@ -171,4 +197,35 @@ class BookingControllerTest {
 
         verify(gatewayApi, never()).getAllBookingByOwner(anyLong(), anyString(), anyInt(), anyInt());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void getAllBookingByUser_whenAfterAndFullPage_thenNextCursorHeader() {
+        BookingDto last = new BookingDto(7L, LocalDateTime.of(2024, 2, 16, 4, 0), null, 1L, null, null, null,
+                BookingStatus.WAITING);
+        when(gatewayApi.getAllBookingByUserAfter(1L, "ALL", "", 2)).thenReturn(List.of(bookingDto, last));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .queryParam("after", "")
+                        .queryParam("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER,
+                        new BookingCursor(last.getStart(), 7L).encode()));
+
+        verify(gatewayApi, never()).getAllBookingByUser(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllBookingByOwner_whenAfterAndLastPage_thenNoNextCursor() {
+        when(gatewayApi.getAllBookingByOwnerAfter(1L, "ALL", "cursor", 2)).thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .queryParam("after", "cursor")
+                        .queryParam("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.TimeWindow;
+import ru.practicum.shareit.booking.service.BookingChangedEvent;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+    @Mock
+    private BookingStorage bookingStorage;
+    @InjectMocks
+    private BookingIntervalIndex index;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        item = new Item(1L, "Item", "Description", true, null, null);
+        index.onBookingChanged(new BookingChangedEvent(booking(1L, 0, 2, BookingStatus.WAITING)));
+        index.onBookingChanged(new BookingChangedEvent(booking(2L, 5, 6, BookingStatus.APPROVED)));
+    }
+
+    @Test
+    void isBooked_whenNoOverlap_thenNoQuery() {
+        assertFalse(index.isBooked(1L, START.plusHours(2), START.plusHours(5)));
+        assertFalse(index.isBooked(2L, START, START.plusHours(6)));
+
+        verify(bookingStorage, never()).findIdsByIdInAndStatusIn(anyList(), any());
+    }
+
+    @Test
+    void isBooked_whenOverlapConfirmed_thenTrue() {
+        when(bookingStorage.findIdsByIdInAndStatusIn(eq(List.of(1L)), any())).thenReturn(List.of(1L));
+
+        assertTrue(index.isBooked(1L, START.plusHours(1), START.plusHours(3)));
+    }
+
+    @Test
+    void isBooked_whenOnlyExcludedBookingOverlaps_thenNoQuery() {
+        assertFalse(index.isBooked(1L, START, START.plusHours(2), 1L));
+
+        verify(bookingStorage, never()).findIdsByIdInAndStatusIn(anyList(), any());
+    }
+
+    @Test
+    void isBooked_whenBookingGoneFromDatabase_thenFalseAndForgotten() {
+        when(bookingStorage.findIdsByIdInAndStatusIn(eq(List.of(2L)), any())).thenReturn(List.of());
+
+        assertFalse(index.isBooked(1L, START.plusHours(5), START.plusHours(7)));
+        assertFalse(index.isBooked(1L, START.plusHours(5), START.plusHours(7)));
+
+        verify(bookingStorage, times(1)).findIdsByIdInAndStatusIn(anyList(), any());
+    }
+
+    @Test
+    void onUserDeleted_whenBookingCascadeDeleted_thenForgottenAndVersionChanged() {
+        String before = index.version(1L);
+        when(bookingStorage.findIdsByIdInAndStatusIn(anyList(), any())).thenReturn(List.of(1L));
+
+        index.onUserDeleted(new UserDeletedEvent(3L));
+
+        assertNotEquals(before, index.version(1L));
+        assertEquals(List.of(new TimeWindow(START.plusHours(2), START.plusHours(8))),
+                index.freeWindows(1L, START.plusHours(2), START.plusHours(8)));
+    }
+
+    @Test
+    void onUserDeleted_whenAllBookingsExist_thenVersionKept() {
+        String before = index.version(1L);
+        when(bookingStorage.findIdsByIdInAndStatusIn(anyList(), any())).thenReturn(List.of(1L, 2L));
+
+        index.onUserDeleted(new UserDeletedEvent(3L));
+
+        assertEquals(before, index.version(1L));
+    }
+
+    @Test
+    void update_whenRejected_thenRemoved() {
+        index.update(booking(1L, 0, 2, BookingStatus.REJECTED));
+
+        assertFalse(index.isBooked(1L, START, START.plusHours(2)));
+        verify(bookingStorage, never()).findIdsByIdInAndStatusIn(anyList(), any());
+    }
+
+    @Test
+    void rebuild_always_replacesIntervals() {
+        when(bookingStorage.findIntervals(any(), any())).thenReturn(List.of());
+
+        index.rebuild();
+
+        assertFalse(index.isBooked(1L, START, START.plusHours(6)));
+    }
+
+    @Test
+    void freeWindows_always_gapsAroundBookings() {
+        assertEquals(List.of(new TimeWindow(START.minusHours(1), START), new TimeWindow(START.plusHours(2),
+                START.plusHours(5)), new TimeWindow(START.plusHours(6), START.plusHours(8))),
+                index.freeWindows(1L, START.minusHours(1), START.plusHours(8)));
+        assertEquals(List.of(new TimeWindow(START, START.plusHours(1))),
+                index.freeWindows(2L, START, START.plusHours(1)));
+    }
+
+    @Test
+    void version_whenItemChanged_thenOnlyThatItemChanges() {
+        String first = index.version(1L);
+        String other = index.version(2L);
+
+        index.update(booking(3L, 10, 11, BookingStatus.WAITING));
+        String second = index.version(1L);
+        index.update(booking(3L, 10, 11, BookingStatus.REJECTED));
+
+        assertNotEquals(first, second);
+        assertNotEquals(second, index.version(1L));
+        assertNotEquals(first, index.version(1L));
+        assertEquals(other, index.version(2L));
+    }
+
+    private Booking booking(Long id, int fromHours, int toHours, BookingStatus status) {
+        return new Booking(id, START.plusHours(fromHours), START.plusHours(toHours), item, null, status, 0L);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemIntervalsTest {
+    private ItemIntervals intervals;
+
+    @BeforeEach
+    void setUp() {
+        intervals = new ItemIntervals();
+        intervals.add(1L, 10, 20);
+        intervals.add(2L, 30, 40);
+        intervals.add(3L, 0, 100);
+    }
+
+    @Test
+    void overlapping_whenLongIntervalCoversGap_thenFoundByPrefixMax() {
+        assertEquals(List.of(3L), intervals.overlapping(22, 28));
+        assertEquals(List.of(2L, 3L), intervals.overlapping(35, 36));
+    }
+
+    @Test
+    void overlapping_whenBackToBack_thenNoOverlap() {
+        intervals.remove(3L);
+
+        assertTrue(intervals.overlapping(20, 30).isEmpty());
+        assertTrue(intervals.overlapping(40, 50).isEmpty());
+        assertTrue(intervals.overlapping(0, 10).isEmpty());
+        assertEquals(List.of(1L), intervals.overlapping(19, 21));
+    }
+
+    @Test
+    void remove_whenPresent_thenRemovedAndPrefixMaxRecomputed() {
+        assertTrue(intervals.remove(3L));
+        assertFalse(intervals.remove(3L));
+
+        assertEquals(2, intervals.size());
+        assertTrue(intervals.overlapping(22, 28).isEmpty());
+    }
+
+    @Test
+    void removeEndedBefore_always_dropsFinishedIntervals() {
+        intervals.removeEndedBefore(35);
+
+        assertEquals(2, intervals.size());
+        assertEquals(List.of(3L), intervals.overlapping(10, 20));
+    }
+
+    @Test
+    void freeWindows_whenBookingsInside_thenGapsBetweenMergedBookings() {
+        intervals.remove(3L);
+        intervals.add(4L, 15, 25);
+
+        assertEquals(List.of(List.of(5L, 10L), List.of(25L, 30L), List.of(40L, 50L)),
+                windows(intervals.freeWindows(5, 50)));
+    }
+
+    @Test
+    void freeWindows_whenCoveredOrEmpty_thenNoneOrWhole() {
+        assertTrue(intervals.freeWindows(5, 95).isEmpty());
+        assertEquals(List.of(List.of(100L, 120L)), windows(intervals.freeWindows(100, 120)));
+        assertEquals(List.of(List.of(1L, 2L)), windows(new ItemIntervals().freeWindows(1, 2)));
+    }
+
+    @Test
+    void overlapping_whenRandomIntervals_thenSameAsFullScan() {
+        Random random = new Random(7);
+        long[][] added = new long[500][];
+        ItemIntervals randomIntervals = new ItemIntervals();
+
+        for (int i = 0; i < added.length; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(200);
+            added[i] = new long[]{start, end};
+            randomIntervals.add(i, start, end);
+        }
+
+        for (int query = 0; query < 1_000; query++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(100);
+            List<Long> expected = LongStream.range(0, added.length)
+                    .filter(i -> added[(int) i][0] < end && start < added[(int) i][1])
+                    .boxed()
+                    .collect(Collectors.toList());
+
+            assertEquals(expected, randomIntervals.overlapping(start, end).stream()
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    private static List<List<Long>> windows(List<long[]> windows) {
+        return windows.stream()
+                .map(window -> List.of(window[0], window[1]))
+                .collect(Collectors.toList());
+    }
+}
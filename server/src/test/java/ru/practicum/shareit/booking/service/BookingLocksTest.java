@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingLocksTest {
+
+    @Test
+    void constructor_whenNotPowerOfTwo_thenRoundedUp() {
+        assertEquals(64, new BookingLocks(64).size());
+        assertEquals(128, new BookingLocks(65).size());
+        assertEquals(2, new BookingLocks(0).size());
+    }
+
+    @Test
+    void stripe_whenSequentialIds_thenSpreadOverAllStripes() {
+        BookingLocks locks = new BookingLocks(16);
+        Set<Integer> used = new HashSet<>();
+
+        LongStream.rangeClosed(1, 64).forEach(id -> used.add(locks.stripe(id)));
+
+        assertEquals(16, used.size());
+        assertEquals(locks.stripe(7L), locks.stripe(7L));
+    }
+
+    @Test
+    void withItemLock_always_returnsResultAndReleasesLock() {
+        BookingLocks locks = new BookingLocks(1);
+
+        assertEquals("first", locks.withItemLock(1L, () -> "first"));
+        assertTrue(locks.withItemLock(1L, () -> locks.withItemLock(1L, () -> true)));
+    }
+}
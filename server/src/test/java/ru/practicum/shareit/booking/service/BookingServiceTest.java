@@ -4,16 +4,32 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingPointer;
+import ru.practicum.shareit.booking.model.TimeWindow;
 import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.ItemBookingPointerStorage;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NoDataFoundException;
+import ru.practicum.shareit.item.model.Item;
 
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -23,6 +39,14 @@ import static org.mockito.Mockito.*;
 class BookingServiceTest {
     @Mock
     private BookingStorage bookingStorage;
+    @Mock
+    private ItemBookingPointerStorage pointerStorage;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private BookingIntervalIndex intervalIndex;
+    @Captor
+    private ArgumentCaptor<Collection<ItemBookingPointer>> pointersCaptor;
 
     @InjectMocks
     private BookingService bookingService;
@@ -67,217 +91,234 @@ class BookingServiceTest {
     @Test
     void getAllBookingByUser_whenAll_thenInvokeAppropriate() {
         bookingService.getAllBookingByUser(1L, BookingState.ALL, PageRequest.of(0, 10));
-        verify(bookingStorage).findAllByBookerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.BOOKER), eq(1L), eq(BookingState.ALL),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByUser_whenCurrent_thenInvokeAppropriate() {
         bookingService.getAllBookingByUser(1L, BookingState.CURRENT, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByBookerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.BOOKER), eq(1L), eq(BookingState.CURRENT),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByUser_whenPast_thenInvokeAppropriate() {
         bookingService.getAllBookingByUser(1L, BookingState.PAST, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByBookerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.BOOKER), eq(1L), eq(BookingState.PAST),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByUser_whenFuture_thenInvokeAppropriate() {
         bookingService.getAllBookingByUser(1L, BookingState.FUTURE, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByBookerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage).findAllByBookerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.BOOKER), eq(1L), eq(BookingState.FUTURE),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByUser_whenWaiting_thenInvokeAppropriate() {
         bookingService.getAllBookingByUser(1L, BookingState.WAITING, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByBookerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage).findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.BOOKER), eq(1L), eq(BookingState.WAITING),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByUser_whenRejected_thenInvokeAppropriate() {
         bookingService.getAllBookingByUser(1L, BookingState.REJECTED, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByBookerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage).findAllByBookerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.BOOKER), eq(1L), eq(BookingState.REJECTED),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByOwner_whenAll_thenInvokeAppropriate() {
         bookingService.getAllBookingByOwner(1L, BookingState.ALL, PageRequest.of(0, 10));
-        verify(bookingStorage).findAllByItemOwnerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.OWNER), eq(1L), eq(BookingState.ALL),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByOwner_whenCurrent_thenInvokeAppropriate() {
         bookingService.getAllBookingByOwner(1L, BookingState.CURRENT, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByItemOwnerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.OWNER), eq(1L), eq(BookingState.CURRENT),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByOwner_whenPast_thenInvokeAppropriate() {
         bookingService.getAllBookingByOwner(1L, BookingState.PAST, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByItemOwnerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.OWNER), eq(1L), eq(BookingState.PAST),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByOwner_whenFuture_thenInvokeAppropriate() {
         bookingService.getAllBookingByOwner(1L, BookingState.FUTURE, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByItemOwnerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.OWNER), eq(1L), eq(BookingState.FUTURE),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByOwner_whenWaiting_thenInvokeAppropriate() {
         bookingService.getAllBookingByOwner(1L, BookingState.WAITING, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByItemOwnerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage).findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.OWNER), eq(1L), eq(BookingState.WAITING),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getAllBookingByOwner_whenRejected_thenInvokeAppropriate() {
         bookingService.getAllBookingByOwner(1L, BookingState.REJECTED, PageRequest.of(0, 10));
-        verify(bookingStorage, never()).findAllByItemOwnerIdOrderByStartDesc(anyLong(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(anyLong(),
-                any(), any());
-        verify(bookingStorage, never()).findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc(anyLong(),
-                any(), any(), any());
-        verify(bookingStorage).findAllByItemOwnerIdAndStatusOrderByStartDesc(anyLong(),
-                any(), any());
+        verify(bookingStorage).findPage(eq(BookingRole.OWNER), eq(1L), eq(BookingState.REJECTED),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void updateStatus_whenVersionMatches_thenUpdateAndRefreshPointer() {
+        Item item = new Item(1L, "Item", "Description", true, null, null);
+        booking.setId(1L);
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setVersion(0L);
+        Booking next = new Booking(2L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item,
+                null, BookingStatus.APPROVED, 0L);
+        when(bookingStorage.updateStatus(1L, BookingStatus.APPROVED, 0L)).thenReturn(1);
+        when(bookingStorage.findNextPerItem(eq(List.of(1L)), any(), eq(BookingStatus.APPROVED)))
+                .thenReturn(List.of(next));
+        when(pointerStorage.findAllById(List.of(1L)))
+                .thenReturn(List.of(), List.of(new ItemBookingPointer(1L, null, null, null)));
+
+        Booking updated = bookingService.updateStatus(booking, BookingStatus.APPROVED);
+
+        Assertions.assertEquals(BookingStatus.APPROVED, updated.getStatus());
+        Assertions.assertEquals(1L, updated.getVersion());
+        verify(bookingStorage, never()).save(any());
+
+        verify(eventPublisher).publishEvent(any(BookingChangedEvent.class));
+        verify(pointerStorage).insertMissing(List.of(1L));
+        verify(pointerStorage).saveAll(pointersCaptor.capture());
+        ItemBookingPointer pointer = pointersCaptor.getValue().iterator().next();
+        Assertions.assertEquals(1L, pointer.getItemId());
+        Assertions.assertNull(pointer.getLastBooking());
+        Assertions.assertEquals(next, pointer.getNextBooking());
+        Assertions.assertEquals(next.getStart(), pointer.getValidUntil());
+    }
+
+    @Test
+    void updateStatus_whenChangedConcurrently_thenConflictAndNothingRefreshed() {
+        booking.setId(1L);
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setVersion(0L);
+        when(bookingStorage.updateStatus(1L, BookingStatus.REJECTED, 0L)).thenReturn(0);
+
+        ConflictException exception = Assertions.assertThrows(ConflictException.class,
+                () -> bookingService.updateStatus(booking, BookingStatus.REJECTED));
+
+        Assertions.assertEquals("Статус бронирования уже изменён другим запросом", exception.getMessage());
+        Assertions.assertEquals(BookingStatus.WAITING, booking.getStatus());
+        verifyNoInteractions(pointerStorage, eventPublisher);
+    }
+
+    @Test
+    void updateStatuses_whenPartlyChanged_thenOnlyChangedReturned() {
+        Item item = new Item(1L, "Item", "Description", true, null, null);
+        Booking first = new Booking(1L, null, null, item, null, BookingStatus.WAITING, 0L);
+        Booking second = new Booking(2L, null, null, item, null, BookingStatus.WAITING, 3L);
+        List<BookingStatus> statuses = List.of(BookingStatus.APPROVED, BookingStatus.REJECTED);
+        when(bookingStorage.updateStatuses(List.of(first, second), statuses)).thenReturn(new int[]{1, 0});
+        when(pointerStorage.findAllById(List.of(1L))).thenReturn(List.of(new ItemBookingPointer(1L, null, null, null)));
+
+        List<Booking> changed = bookingService.updateStatuses(List.of(first, second), statuses);
+
+        Assertions.assertEquals(List.of(first), changed);
+        Assertions.assertEquals(BookingStatus.APPROVED, first.getStatus());
+        Assertions.assertEquals(1L, first.getVersion());
+        Assertions.assertEquals(BookingStatus.WAITING, second.getStatus());
+        verify(eventPublisher, times(1)).publishEvent(any(BookingChangedEvent.class));
+        verify(bookingStorage).findNextPerItem(eq(List.of(1L)), any(), eq(BookingStatus.APPROVED));
+    }
+
+    @Test
+    void updateStatuses_whenCommandFailed_thenOnlySucceededReturned() {
+        Item item = new Item(1L, "Item", "Description", true, null, null);
+        Booking failed = new Booking(1L, null, null, item, null, BookingStatus.WAITING, 0L);
+        Booking noInfo = new Booking(2L, null, null, item, null, BookingStatus.WAITING, 0L);
+        List<BookingStatus> statuses = List.of(BookingStatus.APPROVED, BookingStatus.APPROVED);
+        when(bookingStorage.updateStatuses(List.of(failed, noInfo), statuses))
+                .thenReturn(new int[]{Statement.EXECUTE_FAILED, Statement.SUCCESS_NO_INFO});
+        when(pointerStorage.findAllById(List.of(1L))).thenReturn(List.of(new ItemBookingPointer(1L, null, null, null)));
+
+        List<Booking> changed = bookingService.updateStatuses(List.of(failed, noInfo), statuses);
+
+        Assertions.assertEquals(List.of(noInfo), changed);
+        Assertions.assertEquals(BookingStatus.WAITING, failed.getStatus());
+        Assertions.assertEquals(0L, failed.getVersion());
+        verify(eventPublisher, times(1)).publishEvent(any(BookingChangedEvent.class));
+    }
+
+    @Test
+    void updateStatuses_whenEmpty_thenNothingUpdated() {
+        Assertions.assertEquals(List.of(), bookingService.updateStatuses(List.of(), List.of()));
+
+        verifyNoInteractions(bookingStorage, pointerStorage, eventPublisher);
     }
 
     @Test
-    void getLastOrNext_whenLast_thenInvokeAppropriate() {
-        bookingService.getLastOrNext(List.of(1L), "last");
+    void getLastAndNext_whenPointersFresh_thenNoRefresh() {
+        ItemBookingPointer pointer = new ItemBookingPointer(1L, booking, null, LocalDateTime.now().plusDays(1));
+        when(pointerStorage.findAllByItemIdIn(List.of(1L, 2L))).thenReturn(List.of(pointer));
+
+        Map<Long, ItemBookingPointer> pointers = bookingService.getLastAndNext(List.of(1L, 2L));
 
-        verify(bookingStorage).findFirstByItemIdInAndStartBeforeAndStatusOrderByEndDesc(any(), any(), any());
-        verify(bookingStorage, never()).findFirstByItemIdInAndStartAfterAndStatusOrderByStartAsc(any(), any(), any());
+        Assertions.assertEquals(Map.of(1L, pointer), pointers);
+        verify(bookingStorage, never()).findLastPerItem(any(), any(), any());
+        verify(pointerStorage, never()).saveAll(any());
     }
 
     @Test
-    void getLastOrNext_whenNext_thenInvokeAppropriate() {
-        bookingService.getLastOrNext(List.of(1L), "next");
+    void getLastAndNext_whenNextStarted_thenRefreshStaleOnly() {
+        ItemBookingPointer fresh = new ItemBookingPointer(1L, null, null, null);
+        ItemBookingPointer stale = new ItemBookingPointer(2L, null, booking, LocalDateTime.now().minusMinutes(1));
+        when(pointerStorage.findAllByItemIdIn(List.of(1L, 2L))).thenReturn(List.of(fresh, stale));
+        when(pointerStorage.findAllById(List.of(2L))).thenReturn(List.of(stale));
+
+        bookingService.getLastAndNext(List.of(1L, 2L));
+
+        verify(bookingStorage).findLastPerItem(eq(List.of(2L)), any(), eq(BookingStatus.APPROVED));
+        verify(bookingStorage).findNextPerItem(eq(List.of(2L)), any(), eq(BookingStatus.APPROVED));
+        Assertions.assertNull(stale.getNextBooking());
+        Assertions.assertNull(stale.getValidUntil());
+    }
+
+    @Test
+    void rollPointersForward_whenNothingStale_thenNoRefresh() {
+        bookingService.rollPointersForward();
 
-        verify(bookingStorage, never()).findFirstByItemIdInAndStartBeforeAndStatusOrderByEndDesc(any(), any(), any());
-        verify(bookingStorage).findFirstByItemIdInAndStartAfterAndStatusOrderByStartAsc(any(), any(), any());
+        verify(pointerStorage).findStaleItemIds(any());
+        verify(bookingStorage, never()).findNextPerItem(any(), any(), any());
     }
 
     @Test
-    void getLastOrNext_whenNoValid_thenNotInvoke() {
-        bookingService.getLastOrNext(List.of(1L), "wrong");
+    void rollPointersForward_whenStale_thenRefresh() {
+        when(pointerStorage.findStaleItemIds(any())).thenReturn(List.of(3L));
+        when(pointerStorage.findAllById(List.of(3L))).thenReturn(List.of(new ItemBookingPointer(3L, null, null, null)));
+
+        bookingService.rollPointersForward();
 
-        verify(bookingStorage, never()).findFirstByItemIdInAndStartBeforeAndStatusOrderByEndDesc(any(), any(), any());
-        verify(bookingStorage, never()).findFirstByItemIdInAndStartAfterAndStatusOrderByStartAsc(any(), any(), any());
+        verify(bookingStorage).findLastPerItem(eq(List.of(3L)), any(), eq(BookingStatus.APPROVED));
+        verify(pointerStorage, never()).insertMissing(any());
+        verify(pointerStorage).saveAll(any());
+    }
+
+    @Test
+    void getFreeWindows_always_fromIntervalIndex() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(intervalIndex.version(1L)).thenReturn("1-2");
+        when(intervalIndex.freeWindows(1L, from, from.plusDays(1)))
+                .thenReturn(List.of(new TimeWindow(from, from.plusDays(1))));
+
+        Assertions.assertEquals("1-2", bookingService.getAvailabilityVersion(1L));
+        Assertions.assertEquals(1, bookingService.getFreeWindows(1L, from, from.plusDays(1)).size());
+        verifyNoInteractions(bookingStorage);
     }
 
     @Test
@@ -285,4 +326,14 @@ class BookingServiceTest {
         bookingService.getBookingByUserAndItem(1L, 1L);
         verify(bookingStorage).findFirstByItemIdAndBookerIdAndEndBefore(anyLong(), anyLong(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingsAfter_always_invokeKeysetQuery() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2024, 2, 16, 4, 0), 5L);
+
+        bookingService.getBookingsAfter(BookingRole.OWNER, 1L, BookingState.PAST, cursor, 10);
+
+        verify(bookingStorage).findPageAfter(eq(BookingRole.OWNER), eq(1L), eq(BookingState.PAST),
+                any(LocalDateTime.class), eq(cursor), eq(10));
+    }
+}
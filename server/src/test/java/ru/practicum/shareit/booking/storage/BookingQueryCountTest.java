@@ -0,0 +1,129 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.utils.DtoMapper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверка по статистике Hibernate, что бронирования вместе с вещью, владельцем
+ * и арендатором, нужными для BookingDto, загружаются одним SQL-запросом на каждый вызов хранилища
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Sql(value = {"/schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/data_test.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class BookingQueryCountTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 2, 16, 4, 0);
+
+    private final DtoMapper dtoMapper = new DtoMapper();
+
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private EntityManager entityManager;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    static Stream<Arguments> lists() {
+        List<Arguments> lists = new ArrayList<>();
+        for (BookingRole role : BookingRole.values()) {
+            for (BookingState state : BookingState.values()) {
+                lists.add(Arguments.of(role, state));
+            }
+        }
+        return lists.stream();
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("lists")
+    void findPage_whenMappedToDto_thenOneStatement(BookingRole role, BookingState state) {
+        List<BookingDto> bookings = bookingStorage.findPage(role, 1L, state, NOW, PageRequest.of(0, 10)).stream()
+                .map(dtoMapper::toDto)
+                .collect(Collectors.toList());
+
+        assertEquals(1, statistics.getPrepareStatementCount(), role + " " + state + ": " + bookings.size());
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("lists")
+    void findPageAfter_whenMappedToDto_thenOneStatement(BookingRole role, BookingState state) {
+        BookingCursor after = new BookingCursor(LocalDateTime.of(2030, 1, 1, 0, 0), Long.MAX_VALUE);
+        List<BookingDto> bookings = bookingStorage.findPageAfter(role, 1L, state, NOW, after, 10).stream()
+                .map(dtoMapper::toDto)
+                .collect(Collectors.toList());
+
+        assertEquals(1, statistics.getPrepareStatementCount(), role + " " + state + ": " + bookings.size());
+    }
+
+    @Test
+    void findPage_always_notManagedAndDtoFieldsFilled() {
+        List<Booking> bookings = bookingStorage.findPage(BookingRole.BOOKER, 1L, BookingState.ALL, NOW,
+                PageRequest.of(0, 10));
+
+        assertFalse(bookings.isEmpty());
+        for (Booking booking : bookings) {
+            assertFalse(entityManager.contains(booking));
+            assertEquals(booking, bookingStorage.findById(booking.getId())
+                    .map(stored -> new Booking(stored.getId(), stored.getStart(), stored.getEnd(), stored.getItem(),
+                            stored.getBooker(), stored.getStatus(), null))
+                    .orElseThrow());
+        }
+    }
+
+    @Test
+    void findById_whenMappedToDto_thenOneStatement() {
+        BookingDto booking = dtoMapper.toDto(bookingStorage.findById(1L).orElseThrow());
+
+        assertEquals(1, statistics.getPrepareStatementCount(), booking.toString());
+    }
+
+    @Test
+    void findPerItem_whenMappedToDto_thenFixedStatements() {
+        List<Long> items = List.of(1L, 2L, 3L, 4L);
+        LocalDateTime moment = LocalDateTime.of(2024, 2, 17, 0, 0);
+
+        List<BookingDto> bookings = new ArrayList<>();
+        bookingStorage.findLastPerItem(items, moment, BookingStatus.APPROVED)
+                .forEach(booking -> bookings.add(dtoMapper.toDto(booking)));
+        bookingStorage.findNextPerItem(items, moment, BookingStatus.APPROVED)
+                .forEach(booking -> bookings.add(dtoMapper.toDto(booking)));
+        bookingStorage.findFirstByItemIdAndBookerIdAndEndBefore(2L, 1L, NOW)
+                .ifPresent(booking -> bookings.add(dtoMapper.toDto(booking)));
+
+        // По два запроса на последние и ближайшие (id по окну и сами бронирования) при любом числе вещей
+        assertEquals(5, bookings.size());
+        assertEquals(5, statistics.getPrepareStatementCount(), bookings.toString());
+    }
+}
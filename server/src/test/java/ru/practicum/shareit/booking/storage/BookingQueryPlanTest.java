@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверка по EXPLAIN (H2), что выборки BookingStorage идут по индексам, а не полным просмотром таблиц.
+ * SQL берётся у Hibernate, поэтому тест отслеживает и изменения самих запросов
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.booking.storage.BookingQueryPlanTest$SqlCapture")
+@Sql(value = {"/schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/data_test.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class BookingQueryPlanTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 2, 16, 4, 0);
+    private static final Pageable PAGE = PageRequest.of(1, 10);
+    private static final List<Long> ITEMS = List.of(1L, 2L, 3L);
+
+    @Autowired
+    private BookingStorage bookingStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> queries() {
+        List<Arguments> queries = new ArrayList<>();
+        for (BookingRole role : BookingRole.values()) {
+            long userId = role == BookingRole.BOOKER ? 1L : 2L;
+            for (BookingState state : BookingState.values()) {
+                queries.add(query(role + " " + state, s -> s.findPage(role, userId, state, NOW, PAGE)));
+            }
+        }
+
+        return Stream.concat(queries.stream(), Stream.of(
+                query("last", s -> s.findLastPerItem(ITEMS, NOW, BookingStatus.APPROVED)),
+                query("next", s -> s.findNextPerItem(ITEMS, NOW, BookingStatus.APPROVED)),
+                query("finished by booker", s -> s.findFirstByItemIdAndBookerIdAndEndBefore(2L, 1L, NOW)),
+                query("booker after cursor", s -> s.findPageAfter(BookingRole.BOOKER, 1L, BookingState.PAST, NOW,
+                        new BookingCursor(NOW, 5L), 10)),
+                query("owner after cursor", s -> s.findPageAfter(BookingRole.OWNER, 2L, BookingState.ALL, NOW,
+                        new BookingCursor(NOW, 5L), 10))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void query_always_usesIndexes(String name, Consumer<BookingStorage> query) {
+        SqlCapture.STATEMENTS.clear();
+        query.accept(bookingStorage);
+
+        assertFalse(SqlCapture.STATEMENTS.isEmpty(), name);
+        for (String sql : SqlCapture.STATEMENTS) {
+            String plan = jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                    rs -> rs.next() ? rs.getString(1) : "");
+
+            assertFalse(plan.contains("tableScan"), name + ":\n" + plan);
+        }
+    }
+
+    private static Arguments query(String name, Consumer<BookingStorage> query) {
+        return Arguments.of(name, query);
+    }
+
+    public static class SqlCapture implements StatementInspector {
+        private static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -8,11 +8,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.jdbc.Sql;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -35,142 +40,178 @@ class BookingStorageTest {
     }
 
     @Test
-    void findAllByBookerIdOrderByStartDesc() {
-        List<Booking> bookings = bookingStorage.findAllByBookerIdOrderByStartDesc(1L, pageable);
+    void findPage_whenBookerAll_thenAllBookingsStartDesc() {
+        List<Booking> bookings = bookingStorage.findPage(BookingRole.BOOKER, 1L, BookingState.ALL, moment, pageable);
 
         assertEquals(5, bookings.size());
         assertEquals("2024-02-17T03:31:49", bookings.get(0).getStart().toString());
-
     }
 
     @Test
-    void findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(1L,
-                        moment,
-                        moment,
-                        pageable);
-
-        assertEquals(2, bookings.size());
+    void findPage_whenBookerState_thenFilteredByState() {
+        assertEquals(2, bookingStorage.findPage(BookingRole.BOOKER, 1L, BookingState.CURRENT, moment,
+                pageable).size());
+        assertEquals(2, bookingStorage.findPage(BookingRole.BOOKER, 1L, BookingState.PAST, moment,
+                pageable).size());
+        assertEquals(1, bookingStorage.findPage(BookingRole.BOOKER, 1L, BookingState.FUTURE, moment,
+                pageable).size());
+        assertEquals(0, bookingStorage.findPage(BookingRole.BOOKER, 1L, BookingState.WAITING, moment,
+                pageable).size());
+        assertEquals(1, bookingStorage.findPage(BookingRole.BOOKER, 1L, BookingState.REJECTED, moment,
+                pageable).size());
     }
 
     @Test
-    void findAllByBookerIdAndEndIsBeforeOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(1L, moment, pageable);
-
-        assertEquals(2, bookings.size());
+    void findPage_whenOwnerState_thenFilteredByState() {
+        assertEquals(2, bookingStorage.findPage(BookingRole.OWNER, 1L, BookingState.ALL, moment,
+                pageable).size());
+        assertEquals(0, bookingStorage.findPage(BookingRole.OWNER, 1L, BookingState.CURRENT, moment,
+                pageable).size());
+        assertEquals(1, bookingStorage.findPage(BookingRole.OWNER, 4L, BookingState.CURRENT, moment,
+                pageable).size());
+        assertEquals(0, bookingStorage.findPage(BookingRole.OWNER, 1L, BookingState.PAST, moment,
+                pageable).size());
+        assertEquals(2, bookingStorage.findPage(BookingRole.OWNER, 2L, BookingState.PAST, moment,
+                pageable).size());
+        assertEquals(2, bookingStorage.findPage(BookingRole.OWNER, 1L, BookingState.FUTURE, moment,
+                pageable).size());
+        assertEquals(0, bookingStorage.findPage(BookingRole.OWNER, 1L, BookingState.WAITING, moment,
+                pageable).size());
+        assertEquals(1, bookingStorage.findPage(BookingRole.OWNER, 1L, BookingState.REJECTED, moment,
+                pageable).size());
     }
 
     @Test
-    void findAllByBookerIdAndStartIsAfterOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByBookerIdAndStartIsAfterOrderByStartDesc(1L, moment, pageable);
+    void updateStatus_whenVersionMatches_thenUpdatedOnce() {
+        assertEquals(1, bookingStorage.updateStatus(3L, BookingStatus.APPROVED, 0L));
+        assertEquals(0, bookingStorage.updateStatus(3L, BookingStatus.REJECTED, 0L));
 
-        assertEquals(1, bookings.size());
+        Booking booking = bookingStorage.findById(3L).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+        assertEquals(1L, booking.getVersion());
     }
 
     @Test
-    void findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByBookerIdAndStartIsAfterAndStatusOrderByStartDesc(1L, moment,
-                        BookingStatus.WAITING, pageable);
+    void updateStatuses_whenOneVersionStale_thenOthersUpdated() {
+        Booking first = bookingStorage.findById(3L).orElseThrow();
+        Booking second = bookingStorage.findById(5L).orElseThrow();
+        bookingStorage.updateStatus(5L, BookingStatus.APPROVED, 0L);
 
-        assertEquals(0, bookings.size());
+        int[] updated = bookingStorage.updateStatuses(List.of(first, second),
+                List.of(BookingStatus.APPROVED, BookingStatus.REJECTED));
+
+        assertEquals(1, updated[0]);
+        assertEquals(0, updated[1]);
+        assertEquals(BookingStatus.APPROVED, bookingStorage.findById(3L).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingStorage.findById(5L).orElseThrow().getStatus());
     }
 
     @Test
-    void findAllByBookerIdAndStatusOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByBookerIdAndStatusOrderByStartDesc(1L, BookingStatus.REJECTED, pageable);
-
-        assertEquals(1, bookings.size());
+    void findPage_whenOffset_thenPageOfKeyOrder() {
+        assertEquals(List.of(6L, 5L), ids(bookingStorage.findPage(BookingRole.BOOKER, 1L, BookingState.ALL,
+                moment, PageRequest.of(1, 2))));
     }
 
     @Test
-    void findAllByItemOwnerIdOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByItemOwnerIdOrderByStartDesc(1L, pageable);
+    void findLastPerItem_whenSeveralItems_thenLatestStartedOfEach() {
+        List<Booking> bookings = bookingStorage.findLastPerItem(List.of(1L, 2L, 3L, 4L), moment,
+                BookingStatus.APPROVED);
 
-        assertEquals(2, bookings.size());
+        assertEquals(Map.of(2L, 6L, 4L, 8L), byItem(bookings));
     }
 
     @Test
-    void findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(1L, moment,
-                        moment, pageable);
-
-        assertEquals(0, bookings.size());
+    void findNextPerItem_whenSeveralItems_thenEarliestFutureOfEach() {
+        List<Booking> bookings = bookingStorage.findNextPerItem(List.of(1L, 2L, 3L, 4L), moment,
+                BookingStatus.APPROVED);
 
-        bookings =
-                bookingStorage.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(4L, moment,
-                        moment, pageable);
-
-        assertEquals(1, bookings.size());
+        assertEquals(Map.of(1L, 7L, 2L, 4L), byItem(bookings));
     }
 
     @Test
-    void findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(1L, moment, pageable);
-
-        assertEquals(0, bookings.size());
+    void findLastPerItem_whenNoItems_thenEmpty() {
+        assertTrue(bookingStorage.findLastPerItem(List.of(), moment, BookingStatus.APPROVED).isEmpty());
+        assertTrue(bookingStorage.findNextPerItem(List.of(3L), moment, BookingStatus.APPROVED).isEmpty());
+    }
 
-        bookings =
-                bookingStorage.findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(2L, moment, pageable);
+    @Test
+    void findIntervals_whenBlockingNotFinished_thenProjectedWithoutJoins() {
+        List<BookingInterval> intervals = bookingStorage.findIntervals(
+                List.of(BookingStatus.APPROVED, BookingStatus.WAITING), moment);
 
-        assertEquals(2, bookings.size());
+        assertEquals(List.of(2L, 4L, 7L, 8L), intervals.stream()
+                .map(BookingInterval::getId)
+                .sorted()
+                .collect(Collectors.toList()));
+        assertEquals(2L, intervals.stream()
+                .filter(interval -> interval.getId() == 4L)
+                .findFirst()
+                .orElseThrow()
+                .getItemId());
     }
 
     @Test
-    void findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(1L, moment, pageable);
-
-        assertEquals(2, bookings.size());
+    void findIdsByIdInAndStatusIn_always_keepsOnlyMatchingStatus() {
+        assertEquals(List.of(1L), bookingStorage.findIdsByIdInAndStatusIn(List.of(1L, 3L, 100L),
+                List.of(BookingStatus.APPROVED, BookingStatus.WAITING)));
     }
 
     @Test
-    void findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByItemOwnerIdAndStartIsAfterAndStatusOrderByStartDesc(1L,
-                        moment, BookingStatus.WAITING, pageable);
+    void findFirstByItemIdAndBookerIdAndEndBefore() {
+        Optional<Booking> bookingO = bookingStorage.findFirstByItemIdAndBookerIdAndEndBefore(2L, 1L, moment);
 
-        assertEquals(0, bookings.size());
+        assertTrue(bookingO.isPresent());
+        assertEquals("2024-02-16T03:31:52", bookingO.get().getEnd().toString());
     }
 
     @Test
-    void findAllByItemOwnerIdAndStatusOrderByStartDesc() {
-        List<Booking> bookings =
-                bookingStorage.findAllByItemOwnerIdAndStatusOrderByStartDesc(1L, BookingStatus.REJECTED, pageable);
+    void findPageAfter_whenBookerPagesChained_thenAllBookingsOnceInKeyOrder() {
+        List<Booking> first = bookingStorage.findPageAfter(BookingRole.BOOKER, 1L, BookingState.ALL, moment,
+                null, 2);
+        List<Booking> second = bookingStorage.findPageAfter(BookingRole.BOOKER, 1L, BookingState.ALL, moment,
+                cursorOf(first), 2);
+        List<Booking> third = bookingStorage.findPageAfter(BookingRole.BOOKER, 1L, BookingState.ALL, moment,
+                cursorOf(second), 2);
 
-        assertEquals(1, bookings.size());
+        assertEquals(List.of(2L, 8L), ids(first));
+        assertEquals(List.of(6L, 5L), ids(second));
+        assertEquals(List.of(1L), ids(third));
     }
 
     @Test
-    void findFirstByItemIdInAndStartBeforeAndStatusOrderByEndDesc() {
-        List<Booking> bookings =
-                bookingStorage.findFirstByItemIdInAndStartBeforeAndStatusOrderByEndDesc(List.of(1L, 2L, 3L, 4L),
-                        moment, BookingStatus.APPROVED);
+    void findPageAfter_whenOwner_thenBookingsOfOwnerItems() {
+        List<Booking> first = bookingStorage.findPageAfter(BookingRole.OWNER, 2L, BookingState.ALL, moment,
+                null, 3);
+        List<Booking> second = bookingStorage.findPageAfter(BookingRole.OWNER, 2L, BookingState.ALL, moment,
+                cursorOf(first), 3);
 
-        assertEquals(1, bookings.size());
+        assertEquals(List.of(2L, 4L, 6L), ids(first));
+        assertEquals(List.of(5L, 1L), ids(second));
     }
 
     @Test
-    void findFirstByItemIdInAndStartAfterAndStatusOrderByStartAsc() {
-        List<Booking> bookings =
-                bookingStorage.findFirstByItemIdInAndStartAfterAndStatusOrderByStartAsc(List.of(1L, 2L, 3L, 4L),
-                        moment, BookingStatus.APPROVED);
+    void findPageAfter_whenState_thenSameFilterAsOffsetQueries() {
+        assertEquals(List.of(8L, 5L), ids(bookingStorage.findPageAfter(BookingRole.BOOKER, 1L,
+                BookingState.CURRENT, moment, null, 10)));
+        assertEquals(List.of(6L, 1L), ids(bookingStorage.findPageAfter(BookingRole.BOOKER, 1L,
+                BookingState.PAST, moment, null, 10)));
+        assertEquals(List.of(5L), ids(bookingStorage.findPageAfter(BookingRole.BOOKER, 1L,
+                BookingState.REJECTED, moment, new BookingCursor(moment, 100L), 10)));
+    }
 
-        assertEquals(1, bookings.size());
+    private static BookingCursor cursorOf(List<Booking> page) {
+        Booking last = page.get(page.size() - 1);
+        return new BookingCursor(last.getStart(), last.getId());
     }
 
-    @Test
-    void findFirstByItemIdAndBookerIdAndEndBefore() {
-        Optional<Booking> bookingO = bookingStorage.findFirstByItemIdAndBookerIdAndEndBefore(2L, 1L, moment);
+    private static Map<Long, Long> byItem(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Booking::getId));
+    }
 
-        assertTrue(bookingO.isPresent());
-        assertEquals("2024-02-16T03:31:52", bookingO.get().getEnd().toString());
+    private static List<Long> ids(List<Booking> bookings) {
+        return bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
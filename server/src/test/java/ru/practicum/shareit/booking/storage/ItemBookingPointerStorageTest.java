@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingPointer;
+import ru.practicum.shareit.item.dto.ItemDtoFull;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.utils.DtoMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Sql(value = {"/schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/data_test.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ItemBookingPointerStorageTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 2, 16, 4, 0);
+
+    @Autowired
+    private ItemBookingPointerStorage pointerStorage;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Booking first = entityManager.find(Booking.class, 6L);
+        Booking second = entityManager.find(Booking.class, 4L);
+        Booking third = entityManager.find(Booking.class, 7L);
+        pointerStorage.save(new ItemBookingPointer(2L, first, second, second.getStart()));
+        pointerStorage.save(new ItemBookingPointer(1L, null, third, third.getStart()));
+        pointerStorage.save(new ItemBookingPointer(4L, entityManager.find(Booking.class, 8L), null, null));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllByItemIdIn_whenMappedToDto_thenOneStatement() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        DtoMapper dtoMapper = new DtoMapper();
+
+        List<ItemDtoFull> items = pointerStorage.findAllByItemIdIn(List.of(1L, 2L, 3L, 4L)).stream()
+                .map(pointer -> dtoMapper.toItemDtoFull(new Item(), pointer.getLastBooking(),
+                        pointer.getNextBooking(), List.of()))
+                .collect(Collectors.toList());
+
+        assertEquals(3, items.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void insertMissing_whenSomeExist_thenOnlyMissingCreated() {
+        pointerStorage.insertMissing(List.of(1L, 3L));
+        pointerStorage.insertMissing(List.of(3L));
+
+        assertEquals(4, pointerStorage.count());
+        ItemBookingPointer created = pointerStorage.findById(3L).orElseThrow();
+        assertNull(created.getNextBooking());
+        assertEquals(7L, pointerStorage.findById(1L).orElseThrow().getNextBooking().getId());
+    }
+
+    @Test
+    void findStaleItemIds_whenNextStarted_thenOnlyThoseItems() {
+        assertEquals(List.of(), pointerStorage.findStaleItemIds(NOW));
+        assertEquals(List.of(2L), pointerStorage.findStaleItemIds(LocalDateTime.of(2024, 2, 17, 0, 0)));
+        assertEquals(List.of(1L, 2L), pointerStorage.findStaleItemIds(LocalDateTime.of(2024, 3, 1, 0, 0)).stream()
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+}
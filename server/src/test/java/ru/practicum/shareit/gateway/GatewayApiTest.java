@@ -5,37 +5,57 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingPointer;
+import ru.practicum.shareit.booking.model.TimeWindow;
+import ru.practicum.shareit.booking.service.BookingLocks;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NoDataFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.SearchSort;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.utils.DtoMapper;
+import ru.practicum.shareit.utils.EmailValidator;
 import ru.practicum.shareit.utils.Validator;
 
+import javax.validation.Validation;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,6 +72,10 @@ class GatewayApiTest {
     private BookingService bookingService;
     @Mock
     private ItemRequestService requestService;
+    @Spy
+    private BookingLocks bookingLocks = new BookingLocks(4);
+    @Spy
+    private javax.validation.Validator beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks
     private GatewayApi gatewayApi;
@@ -82,6 +106,73 @@ class GatewayApiTest {
         assertEquals(userDto, returned);
     }
 
+    @Test
+    void importUsers_whenMixedBatch_thenResultPerUserInRequestOrder() {
+        User second = new User(null, "Second", "second@user.com");
+        User created = new User(2L, "Second", "second@user.com");
+        UserDto createdDto = new UserDto(2L, "Second", "second@user.com");
+        when(userService.getTakenEmails(Set.of("user@user.com", "second@user.com", "dup@user.com",
+                "blank@name.com", "bad@")))
+                .thenReturn(Set.of("user@user.com"));
+        when(dtoMapper.toEntity(any(UserDto.class))).thenAnswer(invocation -> toEntity(invocation.getArgument(0)));
+        when(userService.importUsers(List.of(second))).thenReturn(List.of(created));
+        when(dtoMapper.toDto(created)).thenReturn(createdDto);
+
+        List<UserImportResultDto> results = gatewayApi.importUsers(Arrays.asList(
+                new UserDto(null, "User", "user@user.com"), new UserDto(null, "Second", "second@user.com"),
+                new UserDto(null, "Dup", "dup@user.com"), new UserDto(null, " ", "blank@name.com"),
+                new UserDto(null, "Bad", "bad@"), new UserDto(null, "Dup", "dup@user.com"), null));
+
+        assertEquals(List.of(409, 201, 400, 400, 400, 400, 400), results.stream()
+                .map(UserImportResultDto::getStatus)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), results.stream()
+                .map(UserImportResultDto::getIndex)
+                .collect(Collectors.toList()));
+        assertEquals(createdDto, results.get(1).getUser());
+        assertEquals("Адрес электронной почты указан в пакете несколько раз", results.get(2).getError());
+        assertEquals("Неверный адрес электронной почты!", results.get(4).getError());
+    }
+
+    @Test
+    void importUsers_whenEmailCheckedDifferentlyByOldValidator_thenSameResultAsCreate() {
+        // Адрес без домена верхнего уровня @Email принимает, а EmailValidator нет,
+        // имя длиннее 64 символов - наоборот
+        UserDto local = new UserDto(null, "Local", "user@localhost");
+        UserDto longName = new UserDto(null, "Long", "a".repeat(65) + "@user.com");
+        when(dtoMapper.toEntity(any(UserDto.class))).thenAnswer(invocation -> toEntity(invocation.getArgument(0)));
+        when(userService.importUsers(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<UserImportResultDto> results = gatewayApi.importUsers(List.of(local, longName));
+
+        assertFalse(EmailValidator.isValid(local.getEmail()));
+        assertTrue(EmailValidator.isValid(longName.getEmail()));
+        assertTrue(beanValidator.validate(toEntity(local)).isEmpty());
+        assertFalse(beanValidator.validate(toEntity(longName)).isEmpty());
+        assertEquals(List.of(201, 400), results.stream()
+                .map(UserImportResultDto::getStatus)
+                .collect(Collectors.toList()));
+        assertEquals("Неверный адрес электронной почты!", results.get(1).getError());
+    }
+
+    @Test
+    void importUsers_whenEmailBlank_thenBlankMessage() {
+        when(dtoMapper.toEntity(any(UserDto.class))).thenAnswer(invocation -> toEntity(invocation.getArgument(0)));
+
+        List<UserImportResultDto> results = gatewayApi.importUsers(List.of(new UserDto(null, "Blank", " ")));
+
+        assertEquals("Адрес электронной почты не может быть пустым!", results.get(0).getError());
+    }
+
+    @Test
+    void importUsers_whenEmptyOrTooLarge_validationExceptionThrown() {
+        List<UserDto> tooLarge = Collections.nCopies(GatewayApi.MAX_IMPORT + 1, new UserDto());
+
+        assertThrows(ValidationException.class, () -> gatewayApi.importUsers(List.of()));
+        assertThrows(ValidationException.class, () -> gatewayApi.importUsers(tooLarge));
+        verify(userService, never()).importUsers(anyList());
+    }
+
     @Test
     void getUser_always_thenInvokeMethods() {
         when(userService.getUser(anyLong())).thenReturn(user);
@@ -100,6 +191,28 @@ class GatewayApiTest {
         verify(dtoMapper, atLeast(1)).toDto(any(User.class));
     }
 
+    @Test
+    void getUsersAfter_whenCursorEmptyOrId_thenPageAfterId() {
+        when(userService.getUsersAfter(anyLong(), anyInt())).thenReturn(List.of(user));
+
+        gatewayApi.getUsersAfter("", 10);
+        gatewayApi.getUsersAfter("42", 10);
+
+        verify(userService).getUsersAfter(0L, 10);
+        verify(userService).getUsersAfter(42L, 10);
+        verify(dtoMapper, times(2)).toDto(user);
+    }
+
+    @Test
+    void getUsersAfter_whenBadCursorOrSize_thenException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> gatewayApi.getUsersAfter("abc", 10));
+        assertEquals("Неверный курсор: abc", exception.getMessage());
+
+        assertThrows(ValidationException.class, () -> gatewayApi.getUsersAfter("", 0));
+        verify(userService, never()).getUsersAfter(anyLong(), anyInt());
+    }
+
     @Test
     void updateUser_always_thenInvokeMethods() {
         when(userService.updateUser(anyLong(), any(User.class))).thenReturn(user);
@@ -167,16 +280,16 @@ class GatewayApiTest {
     void getItem_withCommentsAndOwnerIsRequester_then6InvokeOf5Methods() {
         List<Comment> comments = List.of(new Comment());
         Booking booking = new Booking();
-        List<Booking> bookings = List.of(booking);
         when(itemService.getItem(anyLong())).thenReturn(item);
         when(itemService.getCommentsByItem(anyLong())).thenReturn(comments);
-        when(bookingService.getLastOrNext(anyList(), anyString())).thenReturn(bookings);
+        when(bookingService.getLastAndNext(anyList()))
+                .thenReturn(Map.of(1L, new ItemBookingPointer(1L, booking, booking, null)));
 
         gatewayApi.getItem(1L, 1L);
 
         verify(itemService).getItem(1L);
         verify(itemService).getCommentsByItem(1L);
-        verify(bookingService, times(2)).getLastOrNext(anyList(), anyString());
+        verify(bookingService).getLastAndNext(List.of(1L));
         verify(dtoMapper).toItemDtoFull(item, booking, booking, comments);
     }
 
@@ -185,19 +298,51 @@ class GatewayApiTest {
         List<Comment> comments = List.of(new Comment());
         Booking booking = new Booking();
         booking.setItem(item);
-        List<Booking> bookings = List.of(booking);
+        when(userService.existsById(anyLong())).thenReturn(true);
         when(itemService.getAllByUser(anyLong(), any())).thenReturn(List.of(item));
-        when(itemService.getCommentsByItem(anyLong())).thenReturn(comments);
-        when(bookingService.getLastOrNext(anyList(), anyString())).thenReturn(bookings);
+        when(itemService.getCommentsByItems(anyList())).thenReturn(Map.of(item.getId(), comments));
+        when(bookingService.getLastAndNext(anyList()))
+                .thenReturn(Map.of(item.getId(), new ItemBookingPointer(item.getId(), booking, booking, null)));
 
         gatewayApi.getAllByUser(1L, 0, 10);
 
-        verify(userService).getUser(1L);
+        verify(userService).existsById(1L);
         verify(itemService).getAllByUser(1L, PageRequest.of(0, 10));
-        verify(bookingService, times(2)).getLastOrNext(anyList(), anyString());
+        verify(bookingService).getLastAndNext(List.of(item.getId()));
+        verify(itemService).getCommentsByItems(List.of(item.getId()));
+        verify(itemService, never()).getCommentsByItem(anyLong());
         verify(dtoMapper).toItemDtoFull(item, booking, booking, comments);
     }
 
+    @Test
+    void getAvailability_whenPeriodValid_thenCheckItemAndReturnWindows() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        List<TimeWindow> windows = List.of(new TimeWindow(from, from.plusDays(1)));
+        when(bookingService.getFreeWindows(1L, from, from.plusDays(1))).thenReturn(windows);
+
+        assertEquals(windows, gatewayApi.getAvailability(1L, from, from.plusDays(1)));
+        verify(itemService).getItem(1L);
+    }
+
+    @Test
+    void getAvailabilityVersion_whenItemNotFound_noDataFoundExceptionThrown() {
+        when(itemService.getItem(99L)).thenThrow(new NoDataFoundException("Позиция с id = 99 не найдена!"));
+
+        assertThrows(NoDataFoundException.class, () -> gatewayApi.getAvailabilityVersion(99L));
+        verify(bookingService, never()).getAvailabilityVersion(anyLong());
+    }
+
+    @Test
+    void getAvailability_whenPeriodEmpty_validationExceptionThrown() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> gatewayApi.getAvailability(1L, from, from));
+
+        assertEquals("Начало периода должно быть раньше его окончания", exception.getMessage());
+        verify(bookingService, never()).getFreeWindows(anyLong(), any(), any());
+    }
+
     @Test
     void updateItemTest() {
         ItemDto expected = new ItemDto();
@@ -226,23 +371,45 @@ class GatewayApiTest {
 
     @Test
     void searchByName_whenBlankText_thenReturnEmptyListAndNoInvoke() {
-        List<ItemDto> returned = gatewayApi.searchByName("", 0, 10);
+        List<ItemDto> returned = gatewayApi.searchByName("", 0, 10, "id", false);
 
-        verify(itemService, never()).getAllItems(any(Pageable.class));
+        verify(itemService, never()).searchItems(anyString(), any(Pageable.class), any(), anyBoolean());
         verify(dtoMapper, never()).toDto(any(Item.class));
         assertEquals(new ArrayList<>(), returned);
     }
 
     @Test
     void searchByName_whenNoBlankText_thenInvoke2Methods() {
-        when(itemService.getAllItems(any(Pageable.class))).thenReturn(List.of(item));
+        when(itemService.searchItems(anyString(), any(Pageable.class), any(), anyBoolean())).thenReturn(List.of(item));
 
-        gatewayApi.searchByName("Item", 0, 10);
+        gatewayApi.searchByName("Item", 0, 10, "relevance", true);
 
-        verify(itemService).getAllItems(any(Pageable.class));
+        verify(itemService).searchItems("Item", PageRequest.of(0, 10), SearchSort.RELEVANCE, true);
         verify(dtoMapper).toDto(item);
     }
 
+    @Test
+    void searchByName_whenUnknownSort_illegalArgumentExceptionThrown() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> gatewayApi.searchByName("Item", 0, 10, "price", false));
+
+        assertEquals("Unknown sort: price", exception.getMessage());
+    }
+
+    @Test
+    void suggestNames_always_invokeItemService() {
+        when(itemService.suggestNames(anyString(), anyInt())).thenReturn(List.of("item"));
+
+        assertEquals(List.of("item"), gatewayApi.suggestNames("it", 5));
+        verify(itemService).suggestNames("it", 5);
+    }
+
+    @Test
+    void suggestNames_whenSizeNotPositive_validationExceptionThrown() {
+        assertThrows(ValidationException.class, () -> gatewayApi.suggestNames("it", 0));
+        verifyNoInteractions(itemService);
+    }
+
     @Test
     void createBooking_whenInvoke_invoke6Methods() {
         bookingDto.setItemId(1L);
@@ -259,6 +426,7 @@ class GatewayApiTest {
         verify(validator).checkBooking(booking);
         verify(bookingService).createBooking(booking);
         verify(dtoMapper).toDto(booking);
+        verify(bookingLocks).withItemLock(eq(1L), any());
     }
 
     @Test
@@ -325,7 +493,7 @@ class GatewayApiTest {
 
         gatewayApi.setStatus(1L, 1L, true);
 
-        assertEquals(BookingStatus.APPROVED, booking.getStatus());
+        verify(bookingService).updateStatus(booking, BookingStatus.APPROVED);
     }
 
     @Test
@@ -336,7 +504,21 @@ class GatewayApiTest {
 
         gatewayApi.setStatus(1L, 1L, false);
 
-        assertEquals(BookingStatus.REJECTED, booking.getStatus());
+        verify(bookingService).updateStatus(booking, BookingStatus.REJECTED);
+    }
+
+    @Test
+    void setStatus_whenRejectedReapprovedOverOtherBooking_conflictExceptionThrown() {
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.REJECTED);
+        when(bookingService.getBooking(anyLong())).thenReturn(booking);
+        doThrow(new ConflictException("Вещь уже забронирована на это время"))
+                .when(validator).checkOverlapOnApprove(booking);
+
+        assertThrows(ConflictException.class, () -> gatewayApi.setStatus(1L, 1L, true));
+
+        verify(bookingLocks).withItemLock(eq(item.getId()), any());
+        verify(bookingService, never()).updateStatus(any(), any());
     }
 
     @Test
@@ -364,9 +546,50 @@ class GatewayApiTest {
         assertEquals("Бронирование уже одобрено", exception.getMessage());
     }
 
+    @Test
+    void setStatuses_whenMixedBatch_thenResultPerBookingInRequestOrder() {
+        User owner = new User(2L, "Owner", "owner@user.com");
+        Item own = new Item(1L, "Item", "Description", true, owner, null);
+        Booking waiting = new Booking(1L, null, null, own, user, BookingStatus.WAITING, 0L);
+        Booking approved = new Booking(2L, null, null, own, user, BookingStatus.APPROVED, 0L);
+        Booking rejected = new Booking(3L, null, null, own, user, BookingStatus.REJECTED, 0L);
+        Booking foreign = new Booking(4L, null, null, item, owner, BookingStatus.WAITING, 0L);
+        Booking duplicate = new Booking(5L, null, null, own, user, BookingStatus.WAITING, 0L);
+        when(bookingService.getBookings(Set.of(1L, 2L, 3L, 4L, 5L, 6L)))
+                .thenReturn(List.of(waiting, approved, rejected, foreign, duplicate));
+        when(bookingService.updateStatuses(List.of(waiting, rejected),
+                List.of(BookingStatus.APPROVED, BookingStatus.REJECTED))).thenReturn(List.of(waiting));
+        when(dtoMapper.toDto(waiting)).thenReturn(bookingDto);
+
+        List<BookingStatusResultDto> results = gatewayApi.setStatuses(List.of(
+                new BookingStatusChangeDto(1L, true), new BookingStatusChangeDto(2L, false),
+                new BookingStatusChangeDto(3L, false), new BookingStatusChangeDto(4L, true),
+                new BookingStatusChangeDto(5L, true), new BookingStatusChangeDto(6L, true),
+                new BookingStatusChangeDto(5L, false)), 2L);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 5L), results.stream()
+                .map(BookingStatusResultDto::getBookingId)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(200, 400, 409, 404, 400, 404, 400), results.stream()
+                .map(BookingStatusResultDto::getStatus)
+                .collect(Collectors.toList()));
+        assertEquals(bookingDto, results.get(0).getBooking());
+        assertEquals("Бронирование уже одобрено", results.get(1).getError());
+    }
+
+    @Test
+    void setStatuses_whenEmptyOrTooLarge_validationExceptionThrown() {
+        List<BookingStatusChangeDto> tooLarge = Collections.nCopies(GatewayApi.MAX_STATUS_BATCH + 1,
+                new BookingStatusChangeDto(1L, true));
+
+        assertThrows(ValidationException.class, () -> gatewayApi.setStatuses(List.of(), 1L));
+        assertThrows(ValidationException.class, () -> gatewayApi.setStatuses(tooLarge, 1L));
+        verifyNoInteractions(bookingService);
+    }
+
     @Test
     void getAllBookingByUser_whenValidStatus_thenInvokeMethod6Times() {
-        when(userService.getUser(anyLong())).thenReturn(user);
+        when(userService.existsById(anyLong())).thenReturn(true);
 
         gatewayApi.getAllBookingByUser(1L, "ALL", 0, 10);
         gatewayApi.getAllBookingByUser(1L, "CURRENT", 0, 10);
@@ -380,7 +603,7 @@ class GatewayApiTest {
 
     @Test
     void getAllBookingByUser_whenNoValidStatus_illegalArgumentExceptionThrown() {
-        when(userService.getUser(anyLong())).thenReturn(user);
+        when(userService.existsById(anyLong())).thenReturn(true);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> gatewayApi.getAllBookingByUser(1L, "UNKNOWN", 0, 10));
@@ -390,7 +613,7 @@ class GatewayApiTest {
 
     @Test
     void getAllBookingByOwner_whenValidStatus_thenInvokeMethod6Times() {
-        when(userService.getUser(anyLong())).thenReturn(user);
+        when(userService.existsById(anyLong())).thenReturn(true);
 
         gatewayApi.getAllBookingByOwner(1L, "ALL", 0, 10);
         gatewayApi.getAllBookingByOwner(1L, "CURRENT", 0, 10);
@@ -404,7 +627,7 @@ class GatewayApiTest {
 
     @Test
     void getAllBookingByOwner_whenNoValidStatus_illegalArgumentExceptionThrown() {
-        when(userService.getUser(anyLong())).thenReturn(user);
+        when(userService.existsById(anyLong())).thenReturn(true);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> gatewayApi.getAllBookingByOwner(1L, "UNKNOWN", 0, 10));
@@ -412,6 +635,28 @@ class GatewayApiTest {
         assertEquals("Unknown state: UNKNOWN", exception.getMessage());
     }
 
+    @Test
+    void getAllBookingByUserAfter_whenCursor_thenDecodedCursorPassed() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2024, 2, 16, 3, 31, 58), 6L);
+        when(userService.existsById(anyLong())).thenReturn(true);
+
+        gatewayApi.getAllBookingByUserAfter(1L, "ALL", "", 10);
+        gatewayApi.getAllBookingByOwnerAfter(1L, "PAST", cursor.encode(), 10);
+
+        verify(bookingService).getBookingsAfter(BookingRole.BOOKER, 1L, BookingState.ALL, null, 10);
+        verify(bookingService).getBookingsAfter(BookingRole.OWNER, 1L, BookingState.PAST, cursor, 10);
+    }
+
+    @Test
+    void getAllBookingByUserAfter_whenMalformedCursor_validationExceptionThrown() {
+        when(userService.existsById(anyLong())).thenReturn(true);
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> gatewayApi.getAllBookingByUserAfter(1L, "ALL", "не-курсор", 10));
+
+        assertEquals("Некорректный курсор: не-курсор", exception.getMessage());
+    }
+
     @Test
     void createComment_whenUserIsBookerAndValidBookingEnd_thenReturnCommentDto() {
         Comment comment = new Comment();
@@ -466,14 +711,14 @@ class GatewayApiTest {
     @Test
     void getRequestsByUser_always_thenInvoke4Methods() {
         item.setRequestId(1L);
-        when(userService.getUser(anyLong())).thenReturn(user);
+        when(userService.existsById(anyLong())).thenReturn(true);
         when(requestService.getRequestsByUser(anyLong())).thenReturn(List.of(itemRequest));
         when(itemService.getAllByRequestsId(anyList())).thenReturn(List.of(item));
         when(dtoMapper.toDto(any(ItemRequest.class), anyList())).thenReturn(new ItemRequestDto());
 
         gatewayApi.getRequestsByUser(1L);
 
-        verify(userService).getUser(1L);
+        verify(userService).existsById(1L);
         verify(requestService).getRequestsByUser(1L);
         verify(itemService).getAllByRequestsId(List.of(1L));
         verify(dtoMapper).toDto(itemRequest, List.of(item));
@@ -495,16 +740,20 @@ class GatewayApiTest {
 
     @Test
     void getRequest() {
-        when(userService.getUser(anyLong())).thenReturn(user);
+        when(userService.existsById(anyLong())).thenReturn(true);
         when(requestService.getRequest(anyLong())).thenReturn(itemRequest);
         when(itemService.getAllByRequestsId(anyList())).thenReturn(List.of(item));
         when(dtoMapper.toDto(any(ItemRequest.class), anyList())).thenReturn(new ItemRequestDto());
 
         gatewayApi.getRequest(1L, 1L);
 
-        verify(userService).getUser(1L);
+        verify(userService).existsById(1L);
         verify(requestService).getRequest(1L);
         verify(itemService).getAllByRequestsId(List.of(1L));
         verify(dtoMapper).toDto(itemRequest, List.of(item));
     }
-}
\ No newline at end of file
+
+    private static User toEntity(UserDto dto) {
+        return new User(dto.getId(), dto.getName(), dto.getEmail());
+    }
+}
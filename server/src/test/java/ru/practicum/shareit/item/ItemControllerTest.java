@@ -9,9 +9,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.model.TimeWindow;
 import ru.practicum.shareit.gateway.GatewayApi;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoFull;
@@ -20,12 +22,14 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -152,14 +156,37 @@ class ItemControllerTest {
     @Test
     @SneakyThrows
     void searchByName_whenInvoke_thenStatusOk() {
-        when(gatewayApi.searchByName(anyString(), anyInt(), anyInt())).thenReturn(List.of(itemDto));
+        when(gatewayApi.searchByName(anyString(), anyInt(), anyInt(), anyString(), anyBoolean())).thenReturn(List.of(itemDto));
 
         mockMvc.perform(get("/items/search")
                         .queryParam("text", "TestItem")
                         .queryParam("from", "0")
                         .queryParam("size", "10"))
                 .andExpect(status().isOk());
-        verify(gatewayApi).searchByName(anyString(), anyInt(), anyInt());
+        verify(gatewayApi).searchByName("TestItem", 0, 10, "id", false);
+    }
+
+    @Test
+    @SneakyThrows
+    void searchByName_whenSortAndFuzzy_thenParamsPassed() {
+        mockMvc.perform(get("/items/search")
+                        .queryParam("text", "TestItem")
+                        .queryParam("sort", "relevance")
+                        .queryParam("fuzzy", "true"))
+                .andExpect(status().isOk());
+        verify(gatewayApi).searchByName("TestItem", 0, 100, "relevance", true);
+    }
+
+    @Test
+    @SneakyThrows
+    void suggestNames_whenInvoke_thenStatusOk() {
+        when(gatewayApi.suggestNames(anyString(), anyInt())).thenReturn(List.of("testitem"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .queryParam("prefix", "Te"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("testitem"));
+        verify(gatewayApi).suggestNames("Te", 10);
     }
 
     @Test
@@ -191,4 +218,35 @@ class ItemControllerTest {
 
         verify(gatewayApi, never()).createComment(anyLong(), anyLong(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void getAvailability_whenNoEtag_thenWindowsWithEtag() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 2, 0, 0);
+        when(gatewayApi.getAvailabilityVersion(1L)).thenReturn("100-7");
+        when(gatewayApi.getAvailability(1L, from, to)).thenReturn(List.of(new TimeWindow(from, to)));
+
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"100-7\""))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @SneakyThrows
+    void getAvailability_whenEtagMatches_thenNotModifiedWithoutWindows() {
+        when(gatewayApi.getAvailabilityVersion(1L)).thenReturn("100-7");
+
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T00:00:00")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"100-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"100-7\""));
+
+        verify(gatewayApi, never()).getAvailability(anyLong(), any(), any());
+    }
+}
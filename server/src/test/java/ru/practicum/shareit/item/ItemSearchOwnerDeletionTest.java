@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchResultCache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Вещи удалённого пользователя база удаляет каскадом: поиск и подсказки не должны их больше находить,
+ * в том числе из кэша поиска
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Sql(value = {"/schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = {"/data_test.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class ItemSearchOwnerDeletionTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ItemSearchIndex searchIndex;
+    @Autowired
+    private SearchResultCache searchCache;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        // Схема пересоздана после старта контекста, индекс строится заново по новым данным
+        searchIndex.rebuild();
+        searchCache.clear();
+    }
+
+    @Test
+    void deleteUser_whenOwnerOfItems_thenItemsGoneFromSearchAndSuggest() throws Exception {
+        long ownedId = createItem(4L, "Garden table");
+        long keptId = createItem(1L, "Table lamp");
+
+        mockMvc.perform(get("/items/search").param("text", "table"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/items/suggest").param("prefix", "gard"))
+                .andExpect(jsonPath("$[0]").value("garden"));
+
+        mockMvc.perform(delete("/users/4"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/search").param("text", "table"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(keptId));
+        mockMvc.perform(get("/items/search").param("text", "garden"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/items/suggest").param("prefix", "gard"))
+                .andExpect(jsonPath("$.length()").value(0));
+        assertFalse(searchIndex.search("garden", 0, 10).contains(ownedId));
+    }
+
+    private long createItem(Long ownerId, String name) throws Exception {
+        String body = mockMvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"description\":\"" + name + "\",\"available\":true}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyVocabularyTest {
+    private FuzzyVocabulary vocabulary;
+
+    @BeforeEach
+    void setUp() {
+        vocabulary = new FuzzyVocabulary();
+        vocabulary.add("дрель");
+        vocabulary.add("дрели");
+        vocabulary.add("клей");
+        vocabulary.add("сто");
+    }
+
+    @Test
+    void lookup_whenOneEdit_thenFound() {
+        assertEquals(Set.of("дрель", "дрели"), vocabulary.lookup("дрел"));
+        assertEquals(Set.of("дрель"), vocabulary.lookup("дрэль"));
+        assertEquals(Set.of("дрель"), vocabulary.lookup("дерль"));
+        assertEquals(Set.of("дрель"), vocabulary.lookup("дреель"));
+    }
+
+    @Test
+    void lookup_whenTwoEditsOrShortWord_thenNotFound() {
+        assertTrue(vocabulary.lookup("дрэлб").isEmpty());
+        assertTrue(vocabulary.lookup("сто").isEmpty());
+        assertTrue(vocabulary.lookup("стол").isEmpty());
+    }
+
+    @Test
+    void remove_whenWordRemoved_thenNotFound() {
+        vocabulary.remove("дрели");
+
+        assertEquals(Set.of("дрель"), vocabulary.lookup("дрел"));
+    }
+
+    @Test
+    void withinOneEdit_always_damerauLevenshtein() {
+        assertTrue(FuzzyVocabulary.withinOneEdit("abcd", "abcd"));
+        assertTrue(FuzzyVocabulary.withinOneEdit("abcd", "abdc"));
+        assertTrue(FuzzyVocabulary.withinOneEdit("abcd", "abd"));
+        assertTrue(FuzzyVocabulary.withinOneEdit("abcd", "xbcd"));
+        assertFalse(FuzzyVocabulary.withinOneEdit("abcd", "badc"));
+        assertFalse(FuzzyVocabulary.withinOneEdit("abcd", "ab"));
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import static ru.practicum.shareit.item.search.ItemSearchBenchmarkTest.SIZES;
+import static ru.practicum.shareit.item.search.ItemSearchBenchmarkTest.insertItems;
+import static ru.practicum.shareit.item.search.ItemSearchBenchmarkTest.measure;
+
+/**
+ * Замер задержки поиска в PostgreSQL: LIKE против полнотекстового поиска по GIN-индексу search_vector,
+ * с сортировкой по id и по ts_rank, на тех же данных, что и ItemSearchBenchmarkTest.
+ * Нужна отдельная база PostgreSQL, схема в ней пересоздаётся (см. ItemStoragePostgresTest). Запуск:
+ * SHAREIT_TEST_POSTGRES_URL=... mvn test -Dbenchmark=true -Dtest=ItemFullTextBenchmarkTest
+ */
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.url=${SHAREIT_TEST_POSTGRES_URL}",
+        "spring.datasource.username=${SHAREIT_TEST_POSTGRES_USER:postgres}",
+        "spring.datasource.password=${SHAREIT_TEST_POSTGRES_PASSWORD:}",
+        "spring.sql.init.mode=never"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(value = {"/schema.sql", "/schema-postgresql.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledIfEnvironmentVariable(named = "SHAREIT_TEST_POSTGRES_URL", matches = "jdbc:postgresql:.+")
+class ItemFullTextBenchmarkTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Test
+    void searchLatencyByItemCount() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('owner', 'owner@owner.com')");
+
+        int inserted = 0;
+        for (int size : SIZES) {
+            insertItems(jdbcTemplate, inserted, size);
+            inserted = size;
+            // Без свежей статистики планировщик может не выбрать GIN-индекс
+            jdbcTemplate.execute("ANALYZE items");
+
+            String rare = "№" + (size - 7);
+            log.info("items={} like common: {} | like rare: {}", size,
+                    measure(page -> itemStorage.search("дрель", page)),
+                    measure(page -> itemStorage.search(rare, page)));
+            log.info("items={} full-text common: {} | full-text rare: {}", size,
+                    measure(page -> itemStorage.searchFullText("дрель", page)),
+                    measure(page -> itemStorage.searchFullText(rare, page)));
+            log.info("items={} ranked common: {} | ranked rare: {}", size,
+                    measure(page -> itemStorage.searchFullTextRanked("дрель", page)),
+                    measure(page -> itemStorage.searchFullTextRanked(rare, page)));
+        }
+    }
+}
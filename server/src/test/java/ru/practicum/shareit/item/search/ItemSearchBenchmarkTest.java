@@ -0,0 +1,89 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Замер задержки поиска в базе в зависимости от количества вещей.
+ * Запуск: mvn test -Dbenchmark=true -Dtest=ItemSearchBenchmarkTest
+ */
+@Slf4j
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(value = {"/schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ItemSearchBenchmarkTest {
+    private static final String[] WORDS = {"дрель", "отвертка", "клей", "стол", "пила", "лестница", "палатка",
+            "велосипед", "самокат", "проектор", "гитара", "мангал", "перфоратор", "шуруповерт", "рулетка",
+            "удочка", "компрессор", "нивелир", "болгарка", "стремянка"};
+    static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final int BATCH = 10_000;
+    private static final int RUNS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Test
+    void searchLatencyByItemCount() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('owner', 'owner@owner.com')");
+
+        int inserted = 0;
+        for (int size : SIZES) {
+            insertItems(jdbcTemplate, inserted, size);
+            inserted = size;
+
+            log.info("items={} common: {} | rare: {}", size,
+                    measure(page -> itemStorage.search("дрель", page)),
+                    measure(page -> itemStorage.search("№" + (size - 7), page)));
+        }
+    }
+
+    /**
+     * Вещи с номерами [from, to) у пользователя 1: каждая десятая недоступна
+     */
+    static void insertItems(JdbcTemplate jdbcTemplate, int from, int to) {
+        for (int start = from; start < to; start += BATCH) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = start; i < Math.min(start + BATCH, to); i++) {
+                rows.add(new Object[]{WORDS[i % WORDS.length] + " №" + i,
+                        "Описание: " + WORDS[(i * 7) % WORDS.length] + " в хорошем состоянии",
+                        i % 10 != 0});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO items (name, description, available, owner_id) " +
+                    "VALUES (?, ?, ?, 1)", rows);
+        }
+    }
+
+    static String measure(Consumer<PageRequest> search) {
+        PageRequest page = PageRequest.of(0, 20);
+        for (int i = 0; i < 5; i++) {
+            search.accept(page);
+        }
+
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            search.accept(page);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        return String.format("p50=%.2f ms, p99=%.2f ms", nanos[RUNS / 2] / 1e6, nanos[RUNS * 99 / 100] / 1e6);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Сравнение задержки точного и нечёткого поиска по индексу в памяти.
+ * Запуск: mvn test -Dbenchmark=true -Dtest=ItemSearchIndexBenchmarkTest
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ItemSearchIndexBenchmarkTest {
+    private static final String[] SYLLABLES = {"ка", "ро", "ли", "ме", "ту", "на", "пе", "ви", "сто", "дре",
+            "ль", "за", "кру", "бо", "ги", "та", "шу", "ре", "пи", "до"};
+    private static final int ITEMS = 200_000;
+    private static final int RUNS = 200;
+
+    @Test
+    void exactVersusFuzzyLatency() {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= ITEMS; id++) {
+            items.add(new Item(id, word(random) + " " + word(random),
+                    word(random) + " " + word(random) + " " + word(random), true, null, null));
+        }
+
+        ItemStorage itemStorage = mock(ItemStorage.class);
+        when(itemStorage.findAll()).thenReturn(items);
+        ItemSearchIndex searchIndex = new ItemSearchIndex(itemStorage, new RussianEnglishAnalyzer());
+        searchIndex.rebuild();
+
+        String word = items.get(ITEMS / 2).getName().split(" ")[0];
+        String typo = word.substring(0, 2) + "ы" + word.substring(3);
+
+        log.info("items={} word='{}' typo='{}'", ITEMS, word, typo);
+        log.info("exact '{}': {}", word, measure(searchIndex, word, false));
+        log.info("fuzzy '{}': {}", word, measure(searchIndex, word, true));
+        log.info("exact '{}': {}", typo, measure(searchIndex, typo, false));
+        log.info("fuzzy '{}': {}", typo, measure(searchIndex, typo, true));
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String measure(ItemSearchIndex searchIndex, String text, boolean fuzzy) {
+        int found = 0;
+        for (int i = 0; i < 20; i++) {
+            found = searchIndex.search(text, 0, 20, SearchSort.ID, fuzzy).size();
+        }
+
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            searchIndex.search(text, 0, 20, SearchSort.ID, fuzzy);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        return String.format("found=%d, p50=%.3f ms, p99=%.3f ms", found,
+                nanos[RUNS / 2] / 1e6, nanos[RUNS * 99 / 100] / 1e6);
+    }
+}
@@ -0,0 +1,215 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    @Mock
+    private ItemStorage itemStorage;
+    private ItemSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ItemSearchIndex(itemStorage, new RussianEnglishAnalyzer());
+        when(itemStorage.findAll()).thenReturn(List.of(
+                new Item(1L, "Аккумуляторная дрель", "Аккумуляторная дрель + аккумулятор", true, null, null),
+                new Item(2L, "Отвертка", "Аккумуляторная отвертка", true, null, null),
+                new Item(3L, "Клей Момент", "Тюбик суперклея марки Момент", true, null, null),
+                new Item(4L, "Дрель ударная", "Сломана", false, null, null)));
+
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void search_whenSubstringOfWord_thenFoundInNameAndDescription() {
+        assertEquals(List.of(1L, 2L), searchIndex.search("аккУМУляторная", 0, 10));
+    }
+
+    @Test
+    void search_whenPhraseAcrossWords_thenOnlyExactSubstringMatches() {
+        assertEquals(List.of(1L), searchIndex.search("ная дрель", 0, 10));
+        assertTrue(searchIndex.search("дрель отвертка", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_whenItemUnavailable_thenNotFound() {
+        assertEquals(List.of(1L), searchIndex.search("дрель", 0, 10));
+    }
+
+    @Test
+    void search_whenPaged_thenPagingOverMatches() {
+        assertEquals(List.of(2L), searchIndex.search("аккумулятор", 1, 10));
+        assertEquals(List.of(1L), searchIndex.search("аккумулятор", 0, 1));
+    }
+
+    @Test
+    void search_whenShortQuery_thenFoundByVocabulary() {
+        assertEquals(List.of(3L), searchIndex.search("Мо", 0, 10));
+        assertEquals(List.of(1L, 2L, 3L), searchIndex.search("к", 0, 10));
+    }
+
+    @Test
+    void search_whenTrigramsPresentButNotAdjacent_thenNotFound() {
+        assertTrue(searchIndex.search("клей момент тюбик", 0, 10).isEmpty());
+        assertEquals(List.of(3L), searchIndex.search("ея марки мо", 0, 10));
+    }
+
+    @Test
+    void search_whenNoLettersInQuery_thenVerifyAllDocuments() {
+        assertEquals(List.of(1L), searchIndex.search(" + ", 0, 10));
+    }
+
+    @Test
+    void index_whenItemUpdated_thenOldTokensRemoved() {
+        searchIndex.index(new Item(3L, "Клей ПВА", "Белый клей", true, null, null));
+
+        assertTrue(searchIndex.search("момент", 0, 10).isEmpty());
+        assertEquals(List.of(3L), searchIndex.search("пва", 0, 10));
+    }
+
+    @Test
+    void index_whenSharedWordsKept_thenOnlyChangedWordsReindexed() {
+        searchIndex.index(new Item(1L, "Дрель Makita", "Аккумуляторная дрель", true, null, null));
+
+        assertEquals(List.of(1L), searchIndex.search("makita", 0, 10));
+        assertEquals(List.of(1L), searchIndex.search("дрель", 0, 10));
+        assertEquals(List.of(1L, 2L), searchIndex.search("аккумуляторная", 0, 10));
+        assertTrue(searchIndex.search("+ аккумулятор", 0, 10).isEmpty());
+        assertEquals(List.of("makita"), searchIndex.suggest("mak", 5));
+        assertTrue(searchIndex.suggest("акк", 5).isEmpty());
+    }
+
+    @Test
+    void index_whenItemBecameUnavailable_thenRemoved() {
+        searchIndex.index(new Item(2L, "Отвертка", "Аккумуляторная отвертка", false, null, null));
+
+        assertEquals(List.of(1L), searchIndex.search("аккумулятор", 0, 10));
+    }
+
+    @Test
+    void removeByOwner_whenOwnerDeleted_thenOnlyOwnedItemsRemoved() {
+        User owner = new User(7L, "Owner", "owner@user.com");
+        searchIndex.index(new Item(5L, "Дрель Bosch", "Ударная дрель", true, owner, null));
+
+        assertEquals(1, searchIndex.removeByOwner(7L));
+        assertEquals(List.of(1L), searchIndex.search("дрель", 0, 10));
+        assertTrue(searchIndex.suggest("bo", 5).isEmpty());
+        assertEquals(0, searchIndex.removeByOwner(7L));
+    }
+
+    @Test
+    void remove_whenItemDeleted_thenNotFound() {
+        searchIndex.remove(1L);
+
+        assertTrue(searchIndex.search("дрель", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_whenSortByRelevance_thenNameMatchesFirst() {
+        searchIndex.index(new Item(5L, "Набор", "Дрель, перфоратор и болгарка", true, null, null));
+        searchIndex.index(new Item(6L, "Дрель", "Дрель сетевая", true, null, null));
+
+        assertEquals(List.of(1L, 5L, 6L), searchIndex.search("дрель", 0, 10, SearchSort.ID, false));
+        assertEquals(List.of(6L, 1L, 5L), searchIndex.search("дрель", 0, 10, SearchSort.RELEVANCE, false));
+        assertEquals(List.of(1L), searchIndex.search("дрель", 1, 1, SearchSort.RELEVANCE, false));
+    }
+
+    @Test
+    void search_whenEqualRelevance_thenLowerIdFirst() {
+        searchIndex.index(new Item(8L, "Клей Момент", "Тюбик суперклея марки Момент", true, null, null));
+
+        assertEquals(List.of(3L, 8L), searchIndex.search("момент", 0, 10, SearchSort.RELEVANCE, false));
+    }
+
+    @Test
+    void suggest_whenPrefix_thenMostFrequentNameWordsFirst() {
+        searchIndex.index(new Item(5L, "Дрель сетевая", "Мощная", true, null, null));
+        searchIndex.index(new Item(6L, "Диван", "Раскладной", true, null, null));
+
+        assertEquals(List.of("дрель", "диван"), searchIndex.suggest("Д", 10));
+        assertEquals(List.of("дрель"), searchIndex.suggest("д", 1));
+        assertEquals(List.of("клей"), searchIndex.suggest("кл", 10));
+    }
+
+    @Test
+    void suggest_whenItemRemovedOrBlankPrefix_thenNoSuggestions() {
+        searchIndex.remove(3L);
+
+        assertTrue(searchIndex.suggest("кл", 10).isEmpty());
+        assertTrue(searchIndex.suggest(" ", 10).isEmpty());
+        assertTrue(searchIndex.suggest("д", 0).isEmpty());
+    }
+
+    @Test
+    void search_whenTypoAndFuzzy_thenFound() {
+        assertTrue(searchIndex.search("дрэль", 0, 10).isEmpty());
+        assertEquals(List.of(1L), searchIndex.search("дрэль", 0, 10, SearchSort.ID, true));
+        assertEquals(List.of(2L), searchIndex.search("отвретка", 0, 10, SearchSort.ID, true));
+        assertEquals(List.of(1L), searchIndex.search("акумуляторная дрль", 0, 10, SearchSort.ID, true));
+    }
+
+    @Test
+    void search_whenFuzzy_thenExactSubstringMatchesKept() {
+        assertEquals(List.of(1L, 2L), searchIndex.search("аккум", 0, 10, SearchSort.ID, true));
+    }
+
+    @Test
+    void search_whenFuzzyAndRelevance_thenExactWordFirst() {
+        searchIndex.index(new Item(5L, "Дрэль", "Китайская", true, null, null));
+
+        assertEquals(List.of(5L, 1L), searchIndex.search("дрэль", 0, 10, SearchSort.RELEVANCE, true));
+    }
+
+    @Test
+    void search_whenTooManyTyposOrShortWord_thenNotFound() {
+        assertTrue(searchIndex.search("дрэлб", 0, 10, SearchSort.ID, true).isEmpty());
+        assertTrue(searchIndex.search("клй", 0, 10, SearchSort.ID, true).isEmpty());
+    }
+
+    @Test
+    void search_whenOtherWordForm_thenFoundByStem() {
+        assertEquals(List.of(1L), searchIndex.search("дрели", 0, 10));
+        assertEquals(List.of(1L), searchIndex.search("аккумуляторной дрелью", 0, 10));
+        assertEquals(List.of(3L), searchIndex.search("клея", 0, 10));
+    }
+
+    @Test
+    void search_whenWordFormsNotAdjacent_thenNotFound() {
+        assertTrue(searchIndex.search("дрели аккумуляторные", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_whenLetterYo_thenSameAsYe() {
+        searchIndex.index(new Item(5L, "Ёлка искусственная", "Зелёная", true, null, null));
+
+        assertEquals(List.of(5L), searchIndex.search("елки", 0, 10));
+        assertEquals(List.of(5L), searchIndex.search("ЗЕЛЕНАЯ", 0, 10));
+    }
+
+    @Test
+    void search_whenStemMatchAndRelevance_thenExactWordFirst() {
+        searchIndex.index(new Item(5L, "Дрели", "Две штуки", true, null, null));
+
+        assertEquals(List.of(5L, 1L), searchIndex.search("дрели", 0, 10, SearchSort.RELEVANCE, false));
+    }
+
+    @Test
+    void remove_whenLastFormDeleted_thenNotFoundByStem() {
+        searchIndex.remove(3L);
+
+        assertTrue(searchIndex.search("клея", 0, 10).isEmpty());
+    }
+}
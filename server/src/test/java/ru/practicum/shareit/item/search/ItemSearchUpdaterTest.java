@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchUpdaterTest {
+    @Mock
+    private ItemSearchIndex searchIndex;
+    @Mock
+    private SearchResultCache searchCache;
+    @InjectMocks
+    private ItemSearchUpdater updater;
+
+    private final Item item = new Item(1L, "New", "New description", true, null, null);
+
+    @Test
+    void onItemChanged_whenCreated_thenIndexedAndInvalidated() {
+        updater.onItemChanged(ItemChangedEvent.created(item));
+
+        InOrder inOrder = inOrder(searchIndex, searchCache);
+        inOrder.verify(searchIndex).index(item);
+        inOrder.verify(searchCache).invalidate("New", "New description");
+        verifyNoMoreInteractions(searchIndex, searchCache);
+    }
+
+    @Test
+    void onItemChanged_whenUpdated_thenOldAndNewTextInvalidated() {
+        updater.onItemChanged(ItemChangedEvent.updated(item, "Old", "Description"));
+
+        verify(searchIndex).index(item);
+        verify(searchCache).invalidate("Old", "Description");
+        verify(searchCache).invalidate("New", "New description");
+    }
+
+    @Test
+    void onItemChanged_whenDeleted_thenRemoved() {
+        updater.onItemChanged(ItemChangedEvent.deleted(item));
+
+        verify(searchIndex).remove(1L);
+        verify(searchIndex, never()).index(any());
+        verify(searchCache).invalidate("New", "New description");
+    }
+
+    @Test
+    void onUserDeleted_whenOwnedItemsRemoved_thenCacheCleared() {
+        when(searchIndex.removeByOwner(2L)).thenReturn(1);
+        when(searchIndex.removeByOwner(3L)).thenReturn(0);
+
+        updater.onUserDeleted(new UserDeletedEvent(2L));
+        updater.onUserDeleted(new UserDeletedEvent(3L));
+
+        verify(searchCache, times(1)).clear();
+    }
+}
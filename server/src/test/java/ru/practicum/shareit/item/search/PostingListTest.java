@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingListTest {
+    private PostingList list;
+
+    @BeforeEach
+    void setUp() {
+        list = new PostingList();
+        list.add(1L);
+        list.add(200L);
+        list.add(5_000_000_000L);
+    }
+
+    @Test
+    void add_whenAscending_thenDecodedInOrder() {
+        assertArrayEquals(new long[]{1L, 200L, 5_000_000_000L}, list.toArray());
+        assertEquals(3, list.size());
+    }
+
+    @Test
+    void add_whenInMiddleOrDuplicate_thenSortedWithoutDuplicates() {
+        list.add(150L);
+        list.add(200L);
+
+        assertArrayEquals(new long[]{1L, 150L, 200L, 5_000_000_000L}, list.toArray());
+    }
+
+    @Test
+    void remove_whenPresent_thenRemoved() {
+        list.remove(200L);
+        list.remove(300L);
+
+        assertArrayEquals(new long[]{1L, 5_000_000_000L}, list.toArray());
+    }
+
+    @Test
+    void remove_whenLast_thenEmpty() {
+        list.remove(1L);
+        list.remove(200L);
+        list.remove(5_000_000_000L);
+
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.toArray().length);
+    }
+
+    @Test
+    void addAndRemove_whenMultiByteDeltas_thenNeighboursKept() {
+        list.add(5L);
+        list.add(4_999_999_999L);
+        list.remove(1L);
+        list.remove(4_999_999_999L);
+
+        assertArrayEquals(new long[]{5L, 200L, 5_000_000_000L}, list.toArray());
+        assertEquals(3, list.size());
+
+        list.remove(5_000_000_000L);
+        list.add(300L);
+
+        assertArrayEquals(new long[]{5L, 200L, 300L}, list.toArray());
+    }
+
+    @Test
+    void trim_whenAppendAfterTrim_thenStillValid() {
+        list.trim();
+        list.add(5_000_000_001L);
+
+        assertArrayEquals(new long[]{1L, 200L, 5_000_000_000L, 5_000_000_001L}, list.toArray());
+    }
+
+    @Test
+    void intersect_always_returnCommonIds() {
+        PostingList other = new PostingList();
+        other.add(200L);
+        other.add(300L);
+        other.add(5_000_000_000L);
+
+        assertArrayEquals(new long[]{200L, 5_000_000_000L}, PostingList.intersect(List.of(list, other)));
+        assertEquals(0, PostingList.intersect(List.of()).length);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RussianEnglishAnalyzerTest {
+    private final TextAnalyzer analyzer = new RussianEnglishAnalyzer();
+
+    @Test
+    void normalize_whenUpperCaseAndYo_thenLowerCaseWithYe() {
+        assertEquals("зеленая ель", analyzer.normalize("Зелёная ЕЛЬ"));
+        assertEquals("", analyzer.normalize(null));
+    }
+
+    @Test
+    void tokenize_whenPunctuation_thenLettersAndDigitsOnly() {
+        assertEquals(List.of("дрель", "18v", "2", "аккумулятора"),
+                analyzer.tokenize("дрель 18v + 2 аккумулятора!"));
+    }
+
+    @Test
+    void stem_whenRussianWordForms_thenSameStem() {
+        assertEquals("дрел", analyzer.stem("дрель"));
+        assertEquals("дрел", analyzer.stem("дрели"));
+        assertEquals("дрел", analyzer.stem("дрелью"));
+        assertEquals("отвертк", analyzer.stem("отвертка"));
+        assertEquals("отвертк", analyzer.stem("отвертки"));
+        assertEquals("аккумуляторн", analyzer.stem("аккумуляторная"));
+        assertEquals("аккумуляторн", analyzer.stem("аккумуляторной"));
+    }
+
+    @Test
+    void stem_whenRussianVerbsAndParticiples_thenEndingRemoved() {
+        assertEquals("слома", analyzer.stem("сломанная"));
+        assertEquals("слома", analyzer.stem("сломанный"));
+        assertEquals("работа", analyzer.stem("работает"));
+        assertEquals("раскладн", analyzer.stem("раскладной"));
+    }
+
+    @Test
+    void stem_whenEnglishWordForms_thenSameStem() {
+        assertEquals("drill", analyzer.stem("drills"));
+        assertEquals("drill", analyzer.stem("drilling"));
+        assertEquals("battery", analyzer.stem("batteries"));
+        assertEquals("box", analyzer.stem("boxes"));
+        assertEquals("run", analyzer.stem("running"));
+    }
+
+    @Test
+    void stem_whenShortWordOrDigits_thenUnchanged() {
+        assertEquals("pc", analyzer.stem("pc"));
+        assertEquals("18v", analyzer.stem("18v"));
+        assertEquals("мо", analyzer.stem("мо"));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchResultCacheTest {
+    private final SearchResultCache cache = new SearchResultCache(new RussianEnglishAnalyzer(), 2);
+
+    @Test
+    void get_whenSameNormalizedQuery_thenHit() {
+        cache.put(cache.key("Дрель", 0, 10, SearchSort.ID, false), List.of(1L), cache.stamp());
+
+        assertEquals(Optional.of(List.of(1L)), cache.get(cache.key("дрель", 0, 10, SearchSort.ID, false)));
+        assertTrue(cache.get(cache.key("дрель", 10, 10, SearchSort.ID, false)).isEmpty());
+        assertTrue(cache.get(cache.key("дрель", 0, 10, SearchSort.RELEVANCE, false)).isEmpty());
+    }
+
+    @Test
+    void put_whenFull_thenLeastRecentlyUsedEvicted() {
+        cache.put(cache.key("дрель", 0, 10, SearchSort.ID, false), List.of(1L), cache.stamp());
+        cache.put(cache.key("клей", 0, 10, SearchSort.ID, false), List.of(2L), cache.stamp());
+        cache.get(cache.key("дрель", 0, 10, SearchSort.ID, false));
+        cache.put(cache.key("пила", 0, 10, SearchSort.ID, false), List.of(3L), cache.stamp());
+
+        assertTrue(cache.get(cache.key("клей", 0, 10, SearchSort.ID, false)).isEmpty());
+        assertEquals(Optional.of(List.of(1L)), cache.get(cache.key("дрель", 0, 10, SearchSort.ID, false)));
+        assertEquals(1.0, cache.evictions());
+    }
+
+    @Test
+    void invalidate_whenItemWordsOverlap_thenOnlyMatchingQueriesDropped() {
+        cache.put(cache.key("дрели", 0, 10, SearchSort.ID, false), List.of(1L), cache.stamp());
+        cache.put(cache.key("клей", 0, 10, SearchSort.ID, false), List.of(2L), cache.stamp());
+
+        cache.invalidate("Дрель ударная", "Мощная");
+
+        assertTrue(cache.get(cache.key("дрели", 0, 10, SearchSort.ID, false)).isEmpty());
+        assertEquals(Optional.of(List.of(2L)), cache.get(cache.key("клей", 0, 10, SearchSort.ID, false)));
+    }
+
+    @Test
+    void invalidate_whenSubstringOrTypo_thenDropped() {
+        cache.put(cache.key("арна", 0, 10, SearchSort.ID, false), List.of(), cache.stamp());
+        cache.put(cache.key("ударнай", 0, 10, SearchSort.ID, true), List.of(), cache.stamp());
+
+        cache.invalidate("Дрель ударная", null);
+
+        assertTrue(cache.get(cache.key("арна", 0, 10, SearchSort.ID, false)).isEmpty());
+        assertTrue(cache.get(cache.key("ударнай", 0, 10, SearchSort.ID, true)).isEmpty());
+    }
+
+    @Test
+    void put_whenInvalidatedDuringSearch_thenNotCached() {
+        long stamp = cache.stamp();
+        cache.invalidate("Пила", "Ножовка");
+        cache.put(cache.key("дрель", 0, 10, SearchSort.ID, false), List.of(1L), stamp);
+
+        assertTrue(cache.get(cache.key("дрель", 0, 10, SearchSort.ID, false)).isEmpty());
+    }
+
+    @Test
+    void bindTo_always_registerHitAndMissCounters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.put(cache.key("дрель", 0, 10, SearchSort.ID, false), List.of(1L), cache.stamp());
+
+        cache.get(cache.key("дрель", 0, 10, SearchSort.ID, false));
+        cache.get(cache.key("клей", 0, 10, SearchSort.ID, false));
+
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+}
@@ -8,16 +8,23 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.exceptions.NoDataFoundException;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchResultCache;
+import ru.practicum.shareit.item.search.SearchSort;
+import ru.practicum.shareit.item.search.SearchSource;
 import ru.practicum.shareit.item.storage.CommentStorage;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,11 +37,19 @@ class ItemServiceImplTest {
     private ItemStorage itemStorage;
     @Mock
     private CommentStorage commentStorage;
+    @Mock
+    private ItemSearchIndex searchIndex;
+    @Mock
+    private SearchResultCache searchCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private ItemServiceImpl itemService;
     private Item item;
     @Captor
     private ArgumentCaptor<Item> itemArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<ItemChangedEvent> eventArgumentCaptor;
 
     @BeforeEach
     void setUp() {
@@ -49,6 +64,10 @@ class ItemServiceImplTest {
 
         assertEquals(item, returnedItem);
         verify(itemStorage).save(any());
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertEquals(item, eventArgumentCaptor.getValue().getItem());
+        assertFalse(eventArgumentCaptor.getValue().isDeleted());
+        verifyNoInteractions(searchIndex, searchCache);
     }
 
     @Test
@@ -94,6 +113,70 @@ class ItemServiceImplTest {
         verify(itemStorage).findAll(PageRequest.of(0, 10));
     }
 
+    @Test
+    void searchItems_whenFound_returnItemsInIndexOrder() {
+        Item first = new Item(1L, "First", "Description", true, null, null);
+        Item second = new Item(2L, "Second", "Description", true, null, null);
+        when(searchIndex.search("desc", 0, 10, SearchSort.RELEVANCE, true)).thenReturn(List.of(2L, 1L));
+        when(itemStorage.findAllById(List.of(2L, 1L))).thenReturn(List.of(first, second));
+
+        List<Item> items = itemService.searchItems("desc", PageRequest.of(0, 10), SearchSort.RELEVANCE, true);
+
+        assertEquals(List.of(second, first), items);
+        verify(searchCache).put(any(), eq(List.of(2L, 1L)), anyLong());
+    }
+
+    @Test
+    void searchItems_whenCached_thenIndexNotInvoked() {
+        Item first = new Item(1L, "First", "Description", true, null, null);
+        when(searchCache.get(any())).thenReturn(Optional.of(List.of(1L)));
+        when(itemStorage.findAllById(List.of(1L))).thenReturn(List.of(first));
+
+        List<Item> items = itemService.searchItems("desc", PageRequest.of(0, 10), SearchSort.ID, false);
+
+        assertEquals(List.of(first), items);
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void searchItems_whenNothingFound_noStorageInvoke() {
+        when(searchIndex.search("desc", 0, 10, SearchSort.ID, false)).thenReturn(List.of());
+
+        List<Item> items = itemService.searchItems("desc", PageRequest.of(0, 10), SearchSort.ID, false);
+
+        assertTrue(items.isEmpty());
+        verify(itemStorage, never()).findAllById(any());
+    }
+
+    @Test
+    void searchItems_whenDatabaseSource_thenEscapedLikeQuery() {
+        ReflectionTestUtils.setField(itemService, "searchSource", SearchSource.DATABASE);
+
+        itemService.searchItems("100%_", PageRequest.of(0, 10), SearchSort.RELEVANCE, false);
+
+        verify(itemStorage).search("100\\%\\_", PageRequest.of(0, 10));
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void searchItems_whenDatabaseFullText_thenFullTextQuery() {
+        ReflectionTestUtils.setField(itemService, "searchSource", SearchSource.DATABASE);
+        ReflectionTestUtils.setField(itemService, "fullTextSearch", true);
+
+        itemService.searchItems("дрель", PageRequest.of(0, 10), SearchSort.ID, false);
+        itemService.searchItems("дрель", PageRequest.of(0, 10), SearchSort.RELEVANCE, false);
+
+        verify(itemStorage).searchFullText("дрель", PageRequest.of(0, 10));
+        verify(itemStorage).searchFullTextRanked("дрель", PageRequest.of(0, 10));
+    }
+
+    @Test
+    void suggestNames_always_invokeSearchIndex() {
+        when(searchIndex.suggest("др", 5)).thenReturn(List.of("дрель"));
+
+        assertEquals(List.of("дрель"), itemService.suggestNames("др", 5));
+    }
+
     @Test
     void updateItem_whenInvoke_updateOnly3Fields() {
         Item oldItem = new Item(1L, "Old", "Description", true, null, null);
@@ -112,12 +195,20 @@ class ItemServiceImplTest {
         assertEquals(false, savedItem.getAvailable());
         assertNull(savedItem.getOwner());
         assertNull(savedItem.getRequestId());
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertEquals("Old", eventArgumentCaptor.getValue().getOldName());
+        assertEquals("Description", eventArgumentCaptor.getValue().getOldDescription());
+        assertTrue(eventArgumentCaptor.getValue().isUpdated());
+        verifyNoInteractions(searchIndex, searchCache);
     }
 
     @Test
     void deleteItem_whenInvoke_returnStringMessage() {
         when(itemStorage.findById(anyLong())).thenReturn(Optional.of(item));
         assertEquals("Удалена позиция с id = 10", itemService.deleteItem(10L));
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertTrue(eventArgumentCaptor.getValue().isDeleted());
+        verifyNoInteractions(searchIndex, searchCache);
     }
 
     @Test
@@ -141,4 +232,24 @@ class ItemServiceImplTest {
         assertEquals(1, comments.size());
         verify(commentStorage).findAllByItemId(anyLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCommentsByItems_whenComments_thenGroupedByItem() {
+        Item one = new Item(1L, "One", "One", true, null, null);
+        Item other = new Item(2L, "Other", "Other", true, null, null);
+        Comment first = new Comment(1L, "First", one, null, null);
+        Comment second = new Comment(2L, "Second", other, null, null);
+        Comment third = new Comment(3L, "Third", one, null, null);
+        when(commentStorage.findAllByItemIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(first, second, third));
+
+        Map<Long, List<Comment>> comments = itemService.getCommentsByItems(List.of(1L, 2L, 3L));
+
+        assertEquals(Map.of(1L, List.of(first, third), 2L, List.of(second)), comments);
+    }
+
+    @Test
+    void getCommentsByItems_whenNoItems_thenNoQuery() {
+        assertTrue(itemService.getCommentsByItems(List.of()).isEmpty());
+        verify(commentStorage, never()).findAllByItemIdIn(any());
+    }
+}
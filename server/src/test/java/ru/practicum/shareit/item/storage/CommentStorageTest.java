@@ -12,6 +12,7 @@ import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @DataJpaTest
 @Sql(value = {"/schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -37,4 +38,26 @@ class CommentStorageTest {
 
         Assertions.assertFalse(comments.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByItemIdIn() {
+        User user = new User(1L, "User", "user@user.com");
+        Item first = new Item(1L, "Item", "Description", true, user, null);
+        Item second = new Item(2L, "Other", "Description", true, user, null);
+        Item third = new Item(3L, "Third", "Description", true, user, null);
+        userStorage.save(user);
+        itemStorage.save(first);
+        itemStorage.save(second);
+        itemStorage.save(third);
+        commentStorage.save(new Comment(1L, "First", first, user, LocalDateTime.now()));
+        commentStorage.save(new Comment(2L, "Second", second, user, LocalDateTime.now()));
+        commentStorage.save(new Comment(3L, "Third", third, user, LocalDateTime.now()));
+
+        List<Comment> comments = commentStorage.findAllByItemIdIn(List.of(1L, 2L));
+
+        Assertions.assertEquals(List.of("First", "Second"), comments.stream()
+                .map(Comment::getText)
+                .collect(Collectors.toList()));
+        Assertions.assertEquals("User", comments.get(0).getAuthor().getName());
+    }
+}
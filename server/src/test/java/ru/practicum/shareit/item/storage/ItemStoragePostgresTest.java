@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нативные запросы полнотекстового поиска по search_vector (см. schema-postgresql.sql) в H2 не выполняются,
+ * поэтому тест идёт на отдельной базе PostgreSQL и без неё пропускается. Схема базы пересоздаётся,
+ * рабочую базу указывать нельзя. Запуск:
+ * SHAREIT_TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/shareit_test SHAREIT_TEST_POSTGRES_USER=test
+ * SHAREIT_TEST_POSTGRES_PASSWORD=test mvn test -Dtest=ItemStoragePostgresTest
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.url=${SHAREIT_TEST_POSTGRES_URL}",
+        "spring.datasource.username=${SHAREIT_TEST_POSTGRES_USER:postgres}",
+        "spring.datasource.password=${SHAREIT_TEST_POSTGRES_PASSWORD:}",
+        "spring.sql.init.mode=never"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql(value = {"/schema.sql", "/schema-postgresql.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@EnabledIfEnvironmentVariable(named = "SHAREIT_TEST_POSTGRES_URL", matches = "jdbc:postgresql:.+")
+class ItemStoragePostgresTest {
+
+    @Autowired
+    private ItemStorage itemStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        User user = userStorage.save(new User(null, "User", "user@user.com"));
+        itemStorage.save(new Item(null, "Набор свёрл", "Свёрла для дрели по бетону", true, user, null));
+        itemStorage.save(new Item(null, "Аккумуляторная дрель", "Дрель с двумя аккумуляторами", true, user, null));
+        itemStorage.save(new Item(null, "Дрель ударная", "Сломана", false, user, null));
+        itemStorage.save(new Item(null, "Клей Момент", "Тюбик суперклея", true, user, null));
+    }
+
+    @Test
+    void searchFullText_whenOtherWordForm_thenFoundByStemOnlyAvailableById() {
+        assertEquals(List.of("Набор свёрл", "Аккумуляторная дрель"),
+                names(itemStorage.searchFullText("ДРЕЛИ", PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void searchFullText_whenPaged_thenOffsetApplied() {
+        assertEquals(List.of("Аккумуляторная дрель"), names(itemStorage.searchFullText("дрель", PageRequest.of(1, 1))));
+        assertTrue(itemStorage.searchFullText("отвертка", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void searchFullTextRanked_whenMatchInName_thenAboveMatchInDescription() {
+        assertEquals(List.of("Аккумуляторная дрель", "Набор свёрл"),
+                names(itemStorage.searchFullTextRanked("дрель", PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void searchFullText_whenSeqScanDisabled_thenPartialGinIndexUsed() {
+        // На четырёх строках планировщик выбирает полный просмотр, поэтому он запрещается в этой транзакции
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM items "
+                + "WHERE available = true AND search_vector @@ plainto_tsquery('russian', 'дрель') "
+                + "ORDER BY item_id", String.class));
+
+        assertTrue(plan.contains("ix_item_search_vector"), plan);
+    }
+
+    private static List<String> names(List<Item> items) {
+        return items.stream()
+                .map(Item::getName)
+                .collect(Collectors.toList());
+    }
+}
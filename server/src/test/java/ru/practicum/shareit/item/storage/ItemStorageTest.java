@@ -15,7 +15,7 @@ import ru.practicum.shareit.user.storage.UserStorage;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 @Sql(value = {"/schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -36,6 +36,8 @@ class ItemStorageTest {
         userStorage.save(user);
         itemRequestStorage.save(itemRequest);
         itemStorage.save(item);
+        itemStorage.save(new Item(2L, "Дрель", "Ударная дрель 100%", true, user, null));
+        itemStorage.save(new Item(3L, "Дрель", "Сломана", false, user, null));
     }
 
     @Test
@@ -58,4 +60,18 @@ class ItemStorageTest {
 
         assertFalse(items.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void search_whenMatchesInNameOrDescription_thenOnlyAvailable() {
+        List<Item> items = itemStorage.search("ДРЕЛЬ", PageRequest.of(0, 10));
+
+        assertEquals(1, items.size());
+        assertEquals(2L, items.get(0).getId());
+    }
+
+    @Test
+    void search_whenEscapedWildcard_thenMatchedLiterally() {
+        assertEquals(1, itemStorage.search("100\\%", PageRequest.of(0, 10)).size());
+        assertTrue(itemStorage.search("1\\_0", PageRequest.of(0, 10)).isEmpty());
+    }
+}
@@ -11,17 +11,28 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.gateway.GatewayApi;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -132,4 +143,105 @@ class UserControllerTest {
                 .andExpect(status().isOk());
     }
 
-}
\ No newline at end of file
+    @Test
+    @SneakyThrows
+    void getUsersAfter_whenPageFull_thenNextCursor() {
+        when(gatewayApi.getUsersAfter("", 2)).thenReturn(List.of(userDto, new UserDto(5L, "Other", "o@ya.ru")));
+
+        mockMvc.perform(get("/users")
+                        .param("after", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "5"))
+                .andExpect(jsonPath("$[1].id").value(5));
+    }
+
+    @Test
+    @SneakyThrows
+    void getUsersAfter_whenLastPage_thenNoCursor() {
+        when(gatewayApi.getUsersAfter("5", 2)).thenReturn(List.of(userDto));
+
+        mockMvc.perform(get("/users")
+                        .param("after", "5")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(UserController.NEXT_CURSOR_HEADER));
+
+        verify(gatewayApi, never()).getAllUsers();
+    }
+
+    @Test
+    @SneakyThrows
+    void exportUsers_whenInvoked_thenOneJsonObjectPerLine() {
+        MockMvc exportMvc = MockMvcBuilders.standaloneSetup(new UserController(gatewayApi, objectMapper)).build();
+        doAnswer(invocation -> {
+            Consumer<UserDto> action = invocation.getArgument(0);
+            action.accept(userDto);
+            action.accept(new UserDto(2L, "Other", "o@ya.ru"));
+            return null;
+        }).when(gatewayApi).forEachUser(any());
+
+        MvcResult result = exportMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = exportMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserController.NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        Assertions.assertEquals("{\"id\":1,\"name\":\"Name\",\"email\":\"user@ya.ru\"}\n"
+                + "{\"id\":2,\"name\":\"Other\",\"email\":\"o@ya.ru\"}\n", body);
+    }
+
+    @Test
+    @SneakyThrows
+    void importUsers_whenJsonArray_thenResultPerUser() {
+        List<UserDto> users = List.of(new UserDto(null, "Name", "user@ya.ru"));
+        when(gatewayApi.importUsers(users)).thenReturn(List.of(new UserImportResultDto(0, 201, userDto, null)));
+
+        mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(users)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].user.id").value(1));
+    }
+
+    @Test
+    @SneakyThrows
+    void importUsers_whenNdjson_thenOneUserPerLine() {
+        MockMvc importMvc = MockMvcBuilders.standaloneSetup(new UserController(gatewayApi, objectMapper)).build();
+        when(gatewayApi.importUsers(any())).thenReturn(List.of());
+
+        importMvc.perform(post("/users/bulk")
+                        .contentType(UserController.NDJSON)
+                        .content("{\"name\":\"Name\",\"email\":\"user@ya.ru\"}\n"
+                                + "{\"name\":\"Other\",\"email\":\"o@ya.ru\"}\n"))
+                .andExpect(status().isOk());
+
+        verify(gatewayApi).importUsers(List.of(new UserDto(null, "Name", "user@ya.ru"),
+                new UserDto(null, "Other", "o@ya.ru")));
+    }
+
+    @Test
+    @SneakyThrows
+    void importUsers_whenNdjsonTooLong_thenReadOneExtraLine() {
+        UserController controller = new UserController(gatewayApi, objectMapper);
+        String line = "{\"name\":\"Name\",\"email\":\"user@ya.ru\"}\n";
+        InputStream body = new ByteArrayInputStream(line.repeat(GatewayApi.MAX_IMPORT + 10)
+                .getBytes(StandardCharsets.UTF_8));
+
+        controller.importUsersNdjson(body);
+
+        verify(gatewayApi).importUsers(argThat(users -> users.size() == GatewayApi.MAX_IMPORT + 1));
+    }
+
+    @Test
+    void importUsers_whenMalformedNdjson_thenValidationException() {
+        UserController controller = new UserController(gatewayApi, objectMapper);
+        InputStream body = new ByteArrayInputStream("{\"name\":".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertThrows(ValidationException.class, () -> controller.importUsersNdjson(body));
+        verify(gatewayApi, never()).importUsers(any());
+    }
+}
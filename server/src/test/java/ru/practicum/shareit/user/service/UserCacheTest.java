@@ -0,0 +1,125 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    @Mock
+    private UserStorage userStorage;
+
+    @Test
+    void get_whenPut_thenCopyReturned() {
+        UserCache cache = new UserCache(userStorage, 2, 1000, now::get);
+        User user = new User(1L, "User", "user@user.com");
+        cache.put(user, cache.stamp());
+        user.setName("Изменено");
+
+        User cached = cache.get(1L).orElseThrow();
+
+        assertEquals("User", cached.getName());
+        assertNotSame(cached, cache.get(1L).orElseThrow());
+    }
+
+    @Test
+    void get_whenTtlPassed_thenMiss() {
+        UserCache cache = new UserCache(userStorage, 2, 1000, now::get);
+        cache.put(new User(1L, "User", "user@user.com"), cache.stamp());
+
+        now.set(TimeUnit.MILLISECONDS.toNanos(999));
+        assertTrue(cache.get(1L).isPresent());
+        now.set(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(cache.get(1L).isEmpty());
+        assertEquals(0.0, cache.size());
+    }
+
+    @Test
+    void put_whenFull_thenLeastRecentlyUsedEvicted() {
+        UserCache cache = new UserCache(userStorage, 2, 1000, now::get);
+        cache.put(new User(1L, "Первый", "first@user.com"), cache.stamp());
+        cache.put(new User(2L, "Второй", "second@user.com"), cache.stamp());
+        cache.get(1L);
+        cache.put(new User(3L, "Третий", "third@user.com"), cache.stamp());
+
+        assertTrue(cache.get(2L).isEmpty());
+        assertTrue(cache.get(1L).isPresent());
+        assertEquals(1.0, cache.evictions());
+    }
+
+    @Test
+    void put_whenInvalidatedDuringLoad_thenNotCached() {
+        UserCache cache = new UserCache(userStorage, 2, 1000, now::get);
+        long stamp = cache.stamp();
+        cache.invalidate(1L);
+        cache.put(new User(1L, "User", "user@user.com"), stamp);
+
+        assertTrue(cache.get(1L).isEmpty());
+    }
+
+    @Test
+    void contains_whenIdsLoaded_thenKnownWithoutStorage() {
+        UserCache cache = new UserCache(userStorage, 2, 1000, now::get);
+        doAnswer(invocation -> {
+            LongConsumer action = invocation.getArgument(0);
+            action.accept(1L);
+            action.accept(2L);
+            // Пользователь удалён, пока строилось множество
+            cache.removed(2L);
+            return null;
+        }).when(userStorage).forEachId(any());
+
+        assertFalse(cache.contains(1L));
+        cache.loadIds();
+        cache.added(3L);
+
+        assertTrue(cache.contains(1L));
+        assertFalse(cache.contains(2L));
+        assertTrue(cache.contains(3L));
+        assertFalse(cache.contains(-1L));
+        assertFalse(cache.contains((long) Integer.MAX_VALUE + 1));
+    }
+
+    @Test
+    void removed_always_dropEntryAndId() {
+        UserCache cache = new UserCache(userStorage, 2, 1000, now::get);
+        cache.added(1L);
+        cache.put(new User(1L, "User", "user@user.com"), cache.stamp());
+
+        cache.removed(1L);
+
+        assertFalse(cache.contains(1L));
+        assertTrue(cache.get(1L).isEmpty());
+    }
+
+    @Test
+    void bindTo_always_registerHitAndMissCounters() {
+        UserCache cache = new UserCache(userStorage, 2, 1000, now::get);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.put(new User(1L, "User", "user@user.com"), cache.stamp());
+
+        cache.get(1L);
+        cache.get(2L);
+
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+}
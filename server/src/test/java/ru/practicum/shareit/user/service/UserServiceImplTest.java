@@ -8,16 +8,23 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.exceptions.AlreadyExistException;
 import ru.practicum.shareit.exceptions.NoDataFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
 import ru.practicum.shareit.utils.Validator;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +33,10 @@ class UserServiceImplTest {
     private UserStorage userStorage;
     @Mock
     private Validator validator;
+    @Mock
+    private UserCache userCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private UserServiceImpl userService;
     private User user;
@@ -60,6 +71,33 @@ class UserServiceImplTest {
         verify(userStorage).save(any());
     }
 
+    @Test
+    void importUsers_always_insertBatchAndRegisterIds() {
+        List<User> users = List.of(new User(null, "User", "user@user.com"));
+        doAnswer(invocation -> {
+            users.get(0).setId(5L);
+            return null;
+        }).when(userStorage).insertAll(users);
+
+        assertEquals(users, userService.importUsers(users));
+        verify(userCache).added(5L);
+    }
+
+    @Test
+    void importUsers_whenEmailTakenConcurrently_alreadyExistExceptionThrown() {
+        List<User> users = List.of(new User(null, "User", "user@user.com"));
+        doThrow(DuplicateKeyException.class).when(userStorage).insertAll(users);
+
+        assertThrows(AlreadyExistException.class, () -> userService.importUsers(users));
+        verify(userCache, never()).added(anyLong());
+    }
+
+    @Test
+    void getTakenEmails_whenEmpty_storageNotInvoked() {
+        assertEquals(Set.of(), userService.getTakenEmails(List.of()));
+        verify(userStorage, never()).findTakenEmails(anyCollection());
+    }
+
     @Test
     void getUser_whenFound_thenReturnUser() {
         when(userStorage.findById(anyLong())).thenReturn(Optional.of(user));
@@ -70,6 +108,45 @@ class UserServiceImplTest {
         verify(userStorage).findById(anyLong());
     }
 
+    @Test
+    void getUser_whenCached_storageNotInvoked() {
+        when(userCache.get(anyLong())).thenReturn(Optional.of(user));
+
+        User returned = userService.getUser(1L);
+
+        assertEquals(user, returned);
+        verify(userStorage, never()).findById(anyLong());
+    }
+
+    @Test
+    void getUser_whenNotCached_putLoadedUserWithStamp() {
+        when(userCache.stamp()).thenReturn(7L);
+        when(userStorage.findById(anyLong())).thenReturn(Optional.of(user));
+
+        userService.getUser(1L);
+
+        verify(userCache).put(user, 7L);
+    }
+
+    @Test
+    void existsById_whenKnownToCache_storageNotInvoked() {
+        when(userCache.contains(anyLong())).thenReturn(true);
+
+        assertTrue(userService.existsById(1L));
+        verify(userStorage, never()).existsById(anyLong());
+    }
+
+    @Test
+    void existsById_whenUnknownToCache_checkStorageAndRemember() {
+        when(userStorage.existsById(1L)).thenReturn(true);
+        when(userStorage.existsById(2L)).thenReturn(false);
+
+        assertTrue(userService.existsById(1L));
+        assertFalse(userService.existsById(2L));
+        verify(userCache).added(1L);
+        verify(userCache, never()).added(2L);
+    }
+
     @Test
     void getUser_whenNotFound_noDataFoundExceptionThrown() {
         when(userStorage.findById(anyLong())).thenReturn(Optional.empty());
@@ -102,11 +179,33 @@ class UserServiceImplTest {
         assertEquals(saved.getId(), 1L);
         assertEquals(saved.getName(), "Update");
         assertEquals(saved.getEmail(), "update@update.com");
+        verify(validator).checkEmailOnExistAndValid(newUser);
+        verify(userCache).invalidate(1L);
+    }
+
+    @Test
+    void updateUser_whenEmailUnchanged_thenNoEmailCheck() {
+        User oldUser = new User(1L, "User", "user@user.com");
+        when(userStorage.findById(anyLong())).thenReturn(Optional.of(oldUser));
+
+        userService.updateUser(1L, new User(null, "Update", "user@user.com"));
+
+        verify(validator, never()).checkEmailOnExistAndValid(any());
+        verify(userStorage, never()).existsByEmailAndIdNot(any(), any());
     }
 
     @Test
     void deleteUser() {
         when(userStorage.findById(anyLong())).thenReturn(Optional.of(user));
         assertEquals(user, userService.deleteUser(1L));
+        verify(userCache).removed(1L);
+        verify(eventPublisher).publishEvent(any(UserDeletedEvent.class));
+    }
+
+    @Test
+    void getUsersAfter_always_pageFromStorage() {
+        userService.getUsersAfter(10L, 20);
+
+        verify(userStorage).findAllByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 20));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+import ru.practicum.shareit.utils.Validator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Замер задержки обновления пользователя со сменой адреса в зависимости от количества пользователей:
+ * проверка уникальности адреса идёт по индексу, поэтому задержка не должна расти.
+ * Запуск: mvn test -Dbenchmark=true -Dtest=UserUpdateBenchmarkTest
+ */
+@Slf4j
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql(value = {"/schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserUpdateBenchmarkTest {
+    private static final int[] SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int BATCH = 10_000;
+    private static final int RUNS = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void updateLatencyByUserCount() {
+        UserService userService = new UserServiceImpl(userStorage, new Validator(null, userStorage),
+                new UserCache(userStorage, 0, 0), event -> {
+                });
+
+        int inserted = 0;
+        for (int size : SIZES) {
+            insertUsers(inserted, size);
+            inserted = size;
+
+            log.info("users={} update: {}", size, measure(userService, size));
+        }
+    }
+
+    private void insertUsers(int from, int to) {
+        for (int start = from; start < to; start += BATCH) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = start; i < Math.min(start + BATCH, to); i++) {
+                rows.add(new Object[]{"user" + i, "user" + i + "@user.com"});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", rows);
+        }
+    }
+
+    private String measure(UserService userService, int size) {
+        for (int i = 0; i < 20; i++) {
+            update(userService, size, i);
+        }
+
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            update(userService, size, i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        return String.format("p50=%.2f ms, p99=%.2f ms", nanos[RUNS / 2] / 1e6, nanos[RUNS * 99 / 100] / 1e6);
+    }
+
+    // Пользователи для обновления берутся по всей таблице, адрес каждый раз новый
+    private void update(UserService userService, int size, int run) {
+        long id = 1 + (long) run * 7919 % size;
+        userService.updateUser(id, new User(null, null, "updated" + size + "-" + run + "-" + System.nanoTime()
+                + "@user.com"));
+    }
+}
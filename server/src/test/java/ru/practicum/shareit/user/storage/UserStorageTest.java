@@ -4,11 +4,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.jdbc.Sql;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -63,4 +67,59 @@ class UserStorageTest {
         assertTrue(userAfterDelete.isEmpty());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void existsByEmailAndIdNot_whenOtherUserHasEmail_thenTrue() {
+        userStorage.save(new User(2L, "Other", "other@user.com"));
+
+        assertTrue(userStorage.existsByEmailAndIdNot("other@user.com", 1L));
+        assertFalse(userStorage.existsByEmailAndIdNot("other@user.com", 2L));
+        assertFalse(userStorage.existsByEmailAndIdNot("free@user.com", 1L));
+    }
+
+    @Test
+    void findAllByIdGreaterThanOrderByIdAsc_whenPaged_thenKeyOrder() {
+        userStorage.save(new User(2L, "Second", "second@user.com"));
+        userStorage.save(new User(3L, "Third", "third@user.com"));
+
+        assertEquals(List.of(1L, 2L), ids(userStorage.findAllByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2))));
+        assertEquals(List.of(3L), ids(userStorage.findAllByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 2))));
+    }
+
+    @Test
+    void forEachUser_always_allUsersInIdOrder() {
+        userStorage.save(new User(2L, "Second", "second@user.com"));
+        userStorage.flush();
+        List<User> users = new ArrayList<>();
+
+        userStorage.forEachUser(users::add);
+
+        assertEquals(List.of(1L, 2L), ids(users));
+        assertEquals("second@user.com", users.get(1).getEmail());
+    }
+
+    @Test
+    void insertAll_always_insertBatchAndSetGeneratedIds() {
+        userStorage.flush();
+        List<User> users = List.of(new User(null, "Second", "second@user.com"),
+                new User(null, "Third", "third@user.com"));
+
+        userStorage.insertAll(users);
+
+        assertEquals(List.of(2L, 3L), ids(users));
+        assertEquals("third@user.com", userStorage.findById(3L).orElseThrow().getEmail());
+    }
+
+    @Test
+    void findTakenEmails_always_onlyExistingEmails() {
+        userStorage.flush();
+
+        assertEquals(Set.of("user@user.com"), userStorage.findTakenEmails(List.of("user@user.com", "new@user.com")));
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
+    }
+}
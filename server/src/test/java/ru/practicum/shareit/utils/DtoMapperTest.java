@@ -36,7 +36,7 @@ class DtoMapperTest {
         item = new Item(1L, "Item", "Description", true, user, null);
         itemDto = new ItemDto(1L, "Item", "Description", true, userDto, null);
         booking = new Booking(1L, LocalDateTime.MIN, LocalDateTime.MIN.plusDays(1L),
-                item, user, BookingStatus.WAITING);
+                item, user, BookingStatus.WAITING, null);
         bookingDto = new BookingDto(1L, LocalDateTime.MIN, LocalDateTime.MIN.plusDays(1L),
                 itemDto.getId(), itemDto, userDto, userDto.getId(), BookingStatus.WAITING);
     }
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Сравнение проверки адреса без регулярного выражения с прежней (компиляция выражения на каждый вызов)
+ * и с заранее скомпилированным выражением: время на вызов и выделенная память на вызов.
+ * Запуск: mvn test -Dbenchmark=true -Dtest=EmailValidatorBenchmarkTest
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EmailValidatorBenchmarkTest {
+    private static final String REGEX = "\\w+([.-]?\\w+)*@\\w+([.-]?\\w+)*\\.\\w{2,4}";
+    private static final Pattern PATTERN = Pattern.compile(REGEX);
+    private static final String[] EMAILS = {"user@user.com", "first.last@mail.yandex.ru", "a-b_c@d-e.f.info",
+            "user@user", "no-at-sign.com"};
+    private static final int WARMUP = 200_000;
+    private static final int RUNS = 1_000_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private int matched;
+
+    @Test
+    void validationCostPerCall() {
+        log.info("scanner: {}", measure(EmailValidator::isValid));
+        log.info("precompiled regex: {}", measure(email -> PATTERN.matcher(email).matches()));
+        log.info("regex compiled per call: {}", measure(email -> Pattern.compile(REGEX).matcher(email).matches()));
+        log.info("matched={}", matched);
+    }
+
+    private String measure(Predicate<String> validator) {
+        run(validator, WARMUP);
+
+        long threadId = Thread.currentThread().getId();
+        long bytes = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        run(validator, RUNS);
+        long nanos = System.nanoTime() - start;
+        bytes = threads.getThreadAllocatedBytes(threadId) - bytes;
+
+        return String.format("%.1f ns/op, %.1f B/op", (double) nanos / RUNS, (double) bytes / RUNS);
+    }
+
+    private void run(Predicate<String> validator, int count) {
+        for (int i = 0; i < count; i++) {
+            if (validator.test(EMAILS[i % EMAILS.length])) {
+                matched++;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailValidatorTest {
+    // Выражение, которое раньше использовал Validator
+    private static final Pattern REGEX = Pattern.compile("\\w+([.-]?\\w+)*@\\w+([.-]?\\w+)*\\.\\w{2,4}");
+    private static final char[] ALPHABET = {'a', 'Z', '7', '_', '.', '-', '@', ' ', 'я'};
+
+    @ParameterizedTest
+    @ValueSource(strings = {"user@user.com", "first.last@mail.yandex.ru", "a-b_c@d-e.f.info", "A1@B2.C3",
+            "x@y.zz"})
+    void isValid_whenValid_thenTrue(String email) {
+        assertTrue(EmailValidator.isValid(email));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "user", "user@", "@user.com", "user@user", "user@user.c", "user@user.comru",
+            "user@.com", ".user@user.com", "user.@user.com", "us..er@user.com", "us.-er@user.com",
+            "user@user-.com", "user@user.c-m", "user@@user.com", "us@er@user.com", "user @user.com",
+            "юзер@user.com", "user@user.com "})
+    void isValid_whenInvalid_thenFalse(String email) {
+        assertFalse(EmailValidator.isValid(email));
+    }
+
+    @Test
+    void isValid_whenRandomStrings_thenSameAsRegex() {
+        Random random = new Random(22);
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < 200_000; i++) {
+            builder.setLength(0);
+            int length = random.nextInt(13);
+            for (int j = 0; j < length; j++) {
+                builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+            // Каждый третий адрес собирается похожим на настоящий, чтобы чаще попадать в допустимые
+            if (i % 3 == 0) {
+                builder.insert(random.nextInt(builder.length() + 1), "a@b").append(".com");
+            }
+            String email = builder.toString();
+
+            assertEquals(REGEX.matcher(email).matches(), EmailValidator.isValid(email), email);
+        }
+    }
+
+    /**
+     * Строки, на которых вложенные квантификаторы прежнего выражения перебирают экспоненциальное число разбиений
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"a", "a.", "a-a"})
+    void isValid_whenAdversarialInput_thenLinearTime(String unit) {
+        String local = unit.repeat(100_000);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            assertFalse(EmailValidator.isValid(local + "!"));
+            assertFalse(EmailValidator.isValid(local + "@" + local + "!"));
+            assertFalse(EmailValidator.isValid(local + "@" + local + ".c"));
+        });
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.utils;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exceptions.AlreadyExistException;
@@ -9,17 +10,22 @@ import ru.practicum.shareit.exceptions.NoDataFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 class ValidatorTest {
 
-    private final Validator validator = new Validator();
+    private final BookingIntervalIndex intervalIndex = mock(BookingIntervalIndex.class);
+    private final UserStorage userStorage = mock(UserStorage.class);
+    private final Validator validator = new Validator(intervalIndex, userStorage);
     private User user;
     private Item item;
     private Booking booking;
@@ -29,7 +35,7 @@ class ValidatorTest {
         user = new User(1L, "User", "user@user.com");
         item = new Item(1L, "Item", "Description", true, user, null);
         booking = new Booking(1L, LocalDateTime.MIN, LocalDateTime.MIN.plusDays(1L),
-                item, user, BookingStatus.WAITING);
+                item, user, BookingStatus.WAITING, null);
     }
 
     @Test
@@ -57,6 +63,19 @@ class ValidatorTest {
         validator.checkBooking(booking);
     }
 
+    @Test
+    void checkBooking_whenItemBookedForTime_validationExceptionThrown() {
+        item.setOwner(new User(2L, "Another user", "another@user.com"));
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        when(intervalIndex.isBooked(1L, booking.getStart(), booking.getEnd())).thenReturn(true);
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> validator.checkBooking(booking));
+
+        assertEquals("Вещь уже забронирована на это время", exception.getMessage());
+    }
+
     @Test
     void checkBooking_whenNotAvailable_validationExceptionThrown() {
         booking.getItem().setAvailable(false);
@@ -145,7 +164,9 @@ class ValidatorTest {
 
     @Test
     void checkEmailOnExistAndValid_whenValid_thenOk() {
-        validator.checkEmailOnExistAndValid(user, new ArrayList<>());
+        validator.checkEmailOnExistAndValid(user);
+
+        verify(userStorage).existsByEmailAndIdNot("user@user.com", 1L);
     }
 
     @Test
@@ -153,25 +174,28 @@ class ValidatorTest {
         user.setEmail("user");
 
         ValidationException exception = assertThrows(ValidationException.class,
-                () -> validator.checkEmailOnExistAndValid(user, new ArrayList<>()));
+                () -> validator.checkEmailOnExistAndValid(user));
 
         assertEquals("При обновлении указан неверный адрес электронной почты!", exception.getMessage());
+        verifyNoInteractions(userStorage);
     }
 
     @Test
     void checkEmailOnExistAndValid_whenEmailOccupied_alreadyExistExceptionThrown() {
-        List<User> users = List.of(new User(2L, "user2", "user@user.com"));
+        when(userStorage.existsByEmailAndIdNot("user@user.com", 1L)).thenReturn(true);
 
         AlreadyExistException exception = assertThrows(AlreadyExistException.class,
-                () -> validator.checkEmailOnExistAndValid(user, users));
+                () -> validator.checkEmailOnExistAndValid(user));
 
         assertEquals("Адрес электронной почты 'user@user.com' занят!", exception.getMessage());
     }
 
     @Test
-    void checkEmailOnExistAndValid_whenUsersEmail_thenOk() {
-        List<User> users = List.of(user, new User(2L, "user2", "user2@user.com"));
+    void checkEmailOnExistAndValid_whenNoEmail_thenNoQuery() {
+        user.setEmail(null);
+
+        validator.checkEmailOnExistAndValid(user);
 
-        validator.checkEmailOnExistAndValid(user, users);
+        verifyNoInteractions(userStorage);
     }
-}
\ No newline at end of file
+}